@@ -0,0 +1,89 @@
+package zeromonos.boundary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import zeromonos.data.BookingRequest;
+import zeromonos.data.EmployeeRequest;
+import zeromonos.data.TaskSummary;
+import zeromonos.data.WorkTaskRequest;
+import zeromonos.service.BookingDraft;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of the list responses and reading of a booking body, with the mapper configured the way
+// the application configures its own (Spring Boot defaults plus the Blackbird module)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"50", "500"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader draftReader;
+    private List<BookingResponse> bookings;
+    private List<TaskSummary> tasks;
+    private byte[] bookingBody;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        draftReader = objectMapper.readerFor(BookingDraft.class);
+        bookingBody = "{\"description\":\"Old sofa and two chairs\",\"municipality\":\"Aveiro\",\"date\":\"2025-11-01T10:00:00\"}"
+            .getBytes(StandardCharsets.UTF_8);
+        EmployeeRequest employee = new EmployeeRequest("Ana", "ana@example.com", "Aveiro", "COLLECTOR");
+        employee.setId(1L);
+        bookings = new ArrayList<>(size);
+        tasks = new ArrayList<>(size);
+        LocalDateTime date = LocalDateTime.of(2025, 11, 1, 10, 0);
+        for (int i = 0; i < size; i++) {
+            BookingRequest booking = new BookingRequest("Old sofa and two chairs", "Aveiro", date.plusHours(i), "TOKEN" + i);
+            booking.setId((long) i);
+            booking.setVersion(0L);
+            bookings.add(BookingResponse.from(booking));
+            WorkTaskRequest task = new WorkTaskRequest(booking, employee);
+            task.setId((long) i);
+            tasks.add(TaskSummary.of(task));
+        }
+    }
+
+    @Benchmark
+    public byte[] bookings() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] tasks() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public BookingDraft readBooking() throws IOException {
+        return draftReader.readValue(bookingBody);
+    }
+}
@@ -0,0 +1,69 @@
+package zeromonos.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import zeromonos.data.BookingRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the daily-limit check. streamFilterCount is the original createBooking check, which filtered
+ * every booking returned by findByMunicipality; ledgerCount is the BookingCapacityLedger lookup that
+ * replaced it. The database round trip of findByMunicipality is not part of either number.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CapacityCheckBenchmark {
+
+    private static final String MUNICIPALITY = "Aveiro";
+
+    @Param({"100", "10000"})
+    public int bookingsPerMunicipality;
+
+    private List<BookingRequest> bookings;
+    private BookingCapacityLedger ledger;
+    private LocalDate day;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        bookings = new ArrayList<>(bookingsPerMunicipality);
+        ledger = new BookingCapacityLedger(null);
+        for (int i = 0; i < bookingsPerMunicipality; i++) {
+            LocalDateTime date = start.plusDays(i % 365);
+            bookings.add(new BookingRequest("Benchmark", MUNICIPALITY, date, "T" + i));
+            ledger.add(MUNICIPALITY, date.toLocalDate(), 1);
+        }
+        day = start.plusDays(42).toLocalDate();
+    }
+
+    @Benchmark
+    public long streamFilterCount() {
+        return bookings.stream()
+            .filter(b -> b.getDate().toLocalDate().equals(day))
+            .count();
+    }
+
+    @Benchmark
+    public int ledgerCount() {
+        return ledger.count(MUNICIPALITY, day);
+    }
+}
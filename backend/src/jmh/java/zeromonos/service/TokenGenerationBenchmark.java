@@ -0,0 +1,32 @@
+package zeromonos.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Booking token generation: UUID.randomUUID() draws from the shared SecureRandom, so it is also run contended
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenGenerationBenchmark {
+
+    @Benchmark
+    public String newToken() {
+        return BookingService.newToken();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String newTokenContended() {
+        return BookingService.newToken();
+    }
+}
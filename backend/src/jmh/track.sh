@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Runs the JMH suite, files the result under src/jmh/history and compares it with the previous run.
+# Exits with 1 when a benchmark got slower by more than the threshold (default 10%).
+# Usage: src/jmh/track.sh [threshold-percent]
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+THRESHOLD=${1:-10}
+HISTORY=src/jmh/history
+mkdir -p "$HISTORY"
+PREVIOUS=$(ls "$HISTORY"/*.json 2>/dev/null | sort | tail -1 || true)
+
+./mvnw -B -q -Pjmh -DskipTests verify
+CURRENT="$HISTORY/$(date +%Y-%m-%d)-$(git rev-parse --short HEAD).json"
+cp target/jmh-result.json "$CURRENT"
+if [ -z "$PREVIOUS" ]; then
+  echo "First result recorded in $CURRENT"
+  exit 0
+fi
+
+# every benchmark reports average time per operation, so a higher score is slower
+REPORT=$(jq -r -n --slurpfile old "$PREVIOUS" --slurpfile new "$CURRENT" --argjson threshold "$THRESHOLD" '
+  def key: .benchmark + (if .params then " " + (.params | to_entries | map("\(.key)=\(.value)") | join(",")) else "" end);
+  ($old[0] | map({key: key, value: .primaryMetric.score}) | from_entries) as $before
+  | $new[0][]
+  | key as $k
+  | .primaryMetric as $m
+  | $before[$k] as $b
+  | if $b == null then "NEW         \($k): \($m.score) \($m.scoreUnit)"
+    else (($m.score - $b) / $b * 100) as $change
+      | (if $change > $threshold then "REGRESSION " elif $change < -$threshold then "IMPROVED   " else "UNCHANGED  " end)
+        + "\($k): \($b) -> \($m.score) \($m.scoreUnit) (\($change | round)%)"
+    end')
+echo "Compared with $PREVIOUS"
+echo "$REPORT"
+! grep -q "^REGRESSION" <<< "$REPORT"
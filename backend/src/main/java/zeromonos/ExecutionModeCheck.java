@@ -0,0 +1,36 @@
+package zeromonos;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports which thread model handles requests, and warns when virtual threads were asked for
+ * on a JVM that cannot provide them, since Spring Boot then silently falls back to platform threads.
+ */
+@Component
+class ExecutionModeCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionModeCheck.class);
+
+    private final Environment environment;
+
+    ExecutionModeCheck(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void report() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            logger.info("Requests are handled on virtual threads");
+        } else if (requested) {
+            logger.warn("Virtual threads were requested but Java {} does not support them, using platform threads",
+                Runtime.version().feature());
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package zeromonos;
 
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TqsHw1Application {
     public static void main(String[] args) {
 		SpringApplication.run(TqsHw1Application.class, args);
 	}
+
+	// Picked up by Boot's ObjectMapper: property access goes through generated lambdas instead of reflection
+	@Bean
+	BlackbirdModule blackbirdModule() {
+		return new BlackbirdModule();
+	}
 }
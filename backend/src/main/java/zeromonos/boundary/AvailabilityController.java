@@ -0,0 +1,48 @@
+package zeromonos.boundary;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import zeromonos.service.BookingService;
+import zeromonos.service.DayAvailability;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@CrossOrigin(origins = "*")
+@RestController
+@RequestMapping("/api/availability")
+public class AvailabilityController {
+
+    private static final int DEFAULT_DAYS = 14;
+    private static final int MAX_DAYS = 90;
+
+    private final BookingService bookingService;
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityController.class);
+
+    public AvailabilityController(BookingService bookingService) {
+        this.bookingService = bookingService;
+    }
+
+    // GET /api/availability?municipality=&from=&to= - Remaining bookings per day, from today for two weeks by default.
+    // Past days are not bookable, so the range starts today at the earliest.
+    @GetMapping
+    public ResponseEntity<List<DayAvailability>> getAvailability(
+            @RequestParam String municipality,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = from == null || from.isBefore(today) ? today : from;
+        LocalDate end = to == null ? start.plusDays(DEFAULT_DAYS - 1L) : to;
+        if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Received availability request for municipality");
+        return ResponseEntity.ok(bookingService.getAvailability(municipality, start, end));
+    }
+}
@@ -0,0 +1,22 @@
+package zeromonos.boundary;
+
+import zeromonos.service.BookingDraft;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// One item of POST /api/bookings/batch; the date stays text so a malformed one fails its item, not the whole batch
+public record BookingBatchItem(String description, String municipality, String date) {
+
+    BookingDraft toDraft() {
+        LocalDateTime parsed = null;
+        try {
+            if (date != null) {
+                parsed = LocalDateTime.parse(date);
+            }
+        } catch (DateTimeParseException e) {
+            // left null, so the item is reported INVALID
+        }
+        return new BookingDraft(description, municipality, parsed);
+    }
+}
@@ -1,114 +1,248 @@
 package zeromonos.boundary;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import zeromonos.data.BookingHistoryRequest;
 import zeromonos.data.BookingRequest;
+import zeromonos.service.BookingBatchResult;
+import zeromonos.service.BookingDailyStat;
+import zeromonos.service.BookingDraft;
+import zeromonos.service.BookingExportService;
+import zeromonos.service.BookingPage;
 import zeromonos.service.BookingService;
+import zeromonos.service.BookingStatusEvent;
+import zeromonos.service.DailyLimitReachedException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = BookingController.NEXT_CURSOR_HEADER)
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
+    private final BookingExportService exportService;
+    private final BookingEventHub eventHub;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingExportService exportService, BookingEventHub eventHub) {
         this.bookingService = bookingService;
+        this.exportService = exportService;
+        this.eventHub = eventHub;
     }
 
     private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
 
     // POST /api/bookings - Request a new booking
     @PostMapping
-    public ResponseEntity<BookingRequest> createBooking(@RequestBody Map<String, String> request) {
-        String description = request.get("description");
-        String municipality = request.get("municipality");
-        LocalDateTime date = LocalDateTime.parse(request.get("date"));
-        if (description == null || municipality == null || date == null) {
+    public ResponseEntity<BookingResponse> createBooking(@RequestBody BookingDraft request) {
+        if (!request.isComplete()) {
             return ResponseEntity.badRequest().build();
         }
         logger.info("Received booking request for municipality");
         try {
-            BookingRequest booking = bookingService.createBooking(description, municipality, date);
+            BookingRequest booking = bookingService.createBooking(request.description(), request.municipality(), request.date());
             logger.info("Booking created");
-            return ResponseEntity.status(HttpStatus.CREATED).body(booking);
-        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(BookingResponse.from(booking));
+        } catch (DailyLimitReachedException e) {
             logger.warn("Booking limit reached for municipality");
             return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
         }
     }
 
-    // GET /api/bookings - Get all bookings
+    // POST /api/bookings/batch - Request many bookings at once, one result per item
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchResult>> createBookings(@RequestBody List<BookingBatchItem> requests) {
+        if (requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Received batch of {} booking requests", requests.size());
+        List<BookingDraft> drafts = requests.stream().map(item -> item == null ? null : item.toDraft()).toList();
+        return ResponseEntity.ok(bookingService.createBookings(drafts));
+    }
+
+    // GET /api/bookings - List bookings one page at a time, filtered on the server
     @GetMapping
-    public ResponseEntity<List<BookingRequest>> getAllBookings() {
-        logger.info("Received request to see all bookings");
-        List<BookingRequest> bookings = bookingService.getAllBookings();
-        return ResponseEntity.ok(bookings);
+    public ResponseEntity<List<BookingResponse>> getAllBookings(
+            @RequestParam(required = false) String municipality,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Received request to see bookings");
+        BookingPage page = bookingService.findBookings(municipality, status, from, to, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return response.body(page.items().stream().map(BookingResponse::from).toList());
+    }
+
+    // GET /api/bookings/export - Stream every booking as NDJSON (default) or CSV
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(defaultValue = "ndjson") String format) {
+        BookingExportService.Format exportFormat;
+        try {
+            exportFormat = BookingExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Received request to export all bookings");
+        boolean csv = exportFormat == BookingExportService.Format.CSV;
+        return ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=bookings." + (csv ? "csv" : "ndjson"))
+            .body(out -> exportService.export(exportFormat, out));
+    }
+
+    // GET /api/bookings/stats - Booking counts per day, municipality and status, read from the rollup
+    @GetMapping("/stats")
+    public ResponseEntity<List<BookingDailyStat>> getBookingStats(
+            @RequestParam(required = false) String municipality,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Received request for booking statistics");
+        return ResponseEntity.ok(bookingService.getDailyStats(municipality, status, from, to));
+    }
+
+    // GET /api/bookings/cache/stats - Token cache hit, miss and eviction counters
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Long>> getTokenCacheStats() {
+        return ResponseEntity.ok(bookingService.getTokenCacheStats());
     }
 
     // GET /api/bookings - Get booking with a specific token
     @GetMapping("/{token}")
-    public ResponseEntity<BookingRequest> getBooking(@PathVariable String token) {
+    public ResponseEntity<BookingResponse> getBooking(@PathVariable String token, WebRequest request) {
         logger.info("Received request to see booking with token");
+        Optional<ResponseEntity<BookingResponse>> notModified =
+            ConditionalGet.notModified(request, () -> bookingService.getBookingTag(token));
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
+        Optional<BookingRequest> booking = bookingService.getBookingByToken(token);
+        return booking.map(found -> ConditionalGet.ok(BookingService.tagOf(found), BookingResponse.from(found)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // GET /api/bookings/{token}/events - Stream status changes of one booking, starting with its current status
+    @GetMapping(path = "/{token}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> getBookingEvents(@PathVariable String token) {
         Optional<BookingRequest> booking = bookingService.getBookingByToken(token);
-        return booking.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        if (booking.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        BookingRequest current = booking.get();
+        SseEmitter emitter = eventHub.subscribeBooking(token, new BookingStatusEvent(token, current.getMunicipality(),
+            null, current.getStatus(), current.getVersion(), LocalDateTime.now()));
+        return emitter == null ? subscribersFull() : ResponseEntity.ok(emitter);
+    }
+
+    // GET /api/bookings/events?municipality= - Stream status changes for staff, optionally for one municipality
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> getStaffEvents(@RequestParam(required = false) String municipality) {
+        SseEmitter emitter = eventHub.subscribeStaff(municipality);
+        return emitter == null ? subscribersFull() : ResponseEntity.ok(emitter);
+    }
+
+    private static ResponseEntity<SseEmitter> subscribersFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "30")
+            .build();
     }
 
     // PUT /api/bookings/{token}/cancel - Cancel booking
     @PutMapping("/{token}/cancel")
-    public ResponseEntity<BookingRequest> cancelBooking(@PathVariable String token) {
+    public ResponseEntity<BookingResponse> cancelBooking(@PathVariable String token) {
         Optional<BookingRequest> bookingOpt = bookingService.getBookingByToken(token);
         if (bookingOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         BookingRequest booking = bookingOpt.get();
         if ("CANCELLED".equals(booking.getStatus())) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(booking);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(BookingResponse.from(booking));
         }
         logger.info("Received request to cancel booking with token");
         booking.setStatus("CANCELLED");
-        bookingService.save(booking);
-        return ResponseEntity.ok(booking);
+        try {
+            bookingService.save(booking);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Booking changed concurrently, cancel rejected");
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(BookingResponse.from(booking));
     }
 
     // PUT /api/bookings/{token}/status - Staff updates booking status
     @PutMapping("/{token}/status")
-    public ResponseEntity<BookingRequest> updateStatus(@PathVariable String token, @RequestBody Map<String, String> body) {
+    public ResponseEntity<BookingResponse> updateStatus(@PathVariable String token, @RequestBody StatusUpdateBody body) {
         Optional<BookingRequest> bookingOpt = bookingService.getBookingByToken(token);
         if (bookingOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         BookingRequest booking = bookingOpt.get();
-        String newStatus = body.get("status");
+        String newStatus = body.status();
         if (newStatus == null) {
             return ResponseEntity.badRequest().build();
         }
         booking.setStatus(newStatus);
-        bookingService.save(booking);
+        try {
+            bookingService.save(booking);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Booking changed concurrently, status update rejected");
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DailyLimitReachedException e) {
+            logger.warn("Booking limit reached, cancelled booking not reactivated");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
         logger.info("Received request to update booking");
-        return ResponseEntity.ok(booking);
+        return ResponseEntity.ok(BookingResponse.from(booking));
     }
 
     // PUT /api/bookings/{token}/history - Check booking status history
     @GetMapping("/{token}/history")
-    public ResponseEntity<List<BookingHistoryRequest>> getBookingHistory(@PathVariable String token) {
+    public ResponseEntity<List<BookingHistoryResponse>> getBookingHistory(@PathVariable String token, WebRequest request) {
+        Optional<ResponseEntity<List<BookingHistoryResponse>>> notModified =
+            ConditionalGet.notModified(request, () -> bookingService.getHistoryTag(token));
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
         Optional<BookingRequest> booking = bookingService.getBookingByToken(token);
         if (booking.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         logger.info("Received request to check the history of booking with token");
         List<BookingHistoryRequest> history = bookingService.getStatusHistory(booking.get());
-        return ResponseEntity.ok(history);
+        return ConditionalGet.ok(BookingService.historyTagOf(booking.get(), history),
+            history.stream().map(BookingHistoryResponse::from).toList());
     }
 }
\ No newline at end of file
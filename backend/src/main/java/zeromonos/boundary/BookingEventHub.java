@@ -0,0 +1,302 @@
+package zeromonos.boundary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import zeromonos.service.BookingStatusEvent;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans booking status events out to Server-Sent Events subscribers: one stream per booking token
+ * for citizens and a staff stream, optionally filtered by municipality.
+ * Subscribers are async servlet responses, so an idle connection holds no thread. Each event is
+ * serialized once by a single dispatcher thread and put in a small buffer per subscriber, which a pool
+ * of writer threads drains. A subscriber whose buffer is full has fallen behind and is disconnected, so
+ * neither the publishing request nor the other subscribers ever wait on a slow client. One scheduled
+ * pass queues a shared heartbeat frame for every subscriber that has been quiet for a whole interval.
+ */
+@Component
+public class BookingEventHub implements SmartLifecycle {
+
+    static final String STATUS_EVENT = "status";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingEventHub.class);
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+    private static final Set<DataWithMediaType> CONNECTED = SseEmitter.event().comment("connected").build();
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, Set<Subscriber>> bookingSubscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber> staffSubscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadPoolExecutor dispatcher;
+    private final ThreadPoolExecutor writers;
+    private final int maxSubscribers;
+    private final int subscriberBuffer;
+    private final long timeoutMs;
+    private final long heartbeatIntervalNanos;
+    private volatile boolean running;
+
+    public BookingEventHub(ObjectMapper objectMapper,
+                           @Value("${bookings.events.max-subscribers:20000}") int maxSubscribers,
+                           @Value("${bookings.events.timeout-ms:1800000}") long timeoutMs,
+                           @Value("${bookings.events.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+                           @Value("${bookings.events.queue-capacity:10000}") int queueCapacity,
+                           @Value("${bookings.events.subscriber-buffer:32}") int subscriberBuffer,
+                           @Value("${bookings.events.writer-threads:4}") int writerThreads) {
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.subscriberBuffer = subscriberBuffer;
+        this.timeoutMs = timeoutMs;
+        this.heartbeatIntervalNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatIntervalMs);
+        // fan-out only fills buffers and never blocks; should even that fall behind, events are dropped
+        // rather than run on the publishing thread, and clients catch up from the booking itself
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), daemon("booking-events"), (task, executor) ->
+                logger.warn("Event dispatch queue is full, status event dropped"));
+        // each subscriber has at most one drain task queued, so this queue is bounded by max-subscribers
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), daemon("booking-events-writer"));
+    }
+
+    // Returns null when the hub already holds max-subscribers connections
+    public SseEmitter subscribeBooking(String token, BookingStatusEvent current) {
+        Subscriber subscriber = register(null);
+        if (subscriber == null) {
+            return null;
+        }
+        Set<Subscriber> subscribers = bookingSubscribers.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet());
+        subscribers.add(subscriber);
+        subscriber.emitter.onCompletion(() -> removeBookingSubscriber(token, subscriber));
+        subscriber.emitter.onTimeout(() -> removeBookingSubscriber(token, subscriber));
+        subscriber.emitter.onError(error -> removeBookingSubscriber(token, subscriber));
+        // the current status closes the gap between the client's last read and the subscription
+        if (current != null) {
+            Set<DataWithMediaType> frame = frame(current);
+            if (frame != null) {
+                offer(subscriber, frame, () -> removeBookingSubscriber(token, subscriber));
+            }
+        }
+        return subscriber.emitter;
+    }
+
+    // A null or blank municipality subscribes to every booking
+    public SseEmitter subscribeStaff(String municipality) {
+        Subscriber subscriber = register(municipality == null || municipality.isBlank() ? null : municipality);
+        if (subscriber == null) {
+            return null;
+        }
+        staffSubscribers.add(subscriber);
+        subscriber.emitter.onCompletion(() -> removeStaffSubscriber(subscriber));
+        subscriber.emitter.onTimeout(() -> removeStaffSubscriber(subscriber));
+        subscriber.emitter.onError(error -> removeStaffSubscriber(subscriber));
+        // commits the response headers so the client sees the stream open before the first event
+        offer(subscriber, CONNECTED, () -> removeStaffSubscriber(subscriber));
+        return subscriber.emitter;
+    }
+
+    @EventListener
+    public void onStatusChange(BookingStatusEvent event) {
+        dispatcher.execute(() -> deliver(event));
+    }
+
+    @Scheduled(fixedDelayString = "${bookings.events.heartbeat-interval-ms:15000}",
+        initialDelayString = "${bookings.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        long idleSince = System.nanoTime() - heartbeatIntervalNanos;
+        bookingSubscribers.forEach((token, subscribers) -> {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.idleSince(idleSince)) {
+                    offer(subscriber, HEARTBEAT, () -> removeBookingSubscriber(token, subscriber));
+                }
+            }
+        });
+        for (Subscriber subscriber : staffSubscribers) {
+            if (subscriber.idleSince(idleSince)) {
+                offer(subscriber, HEARTBEAT, () -> removeStaffSubscriber(subscriber));
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // Streams never finish on their own, so they are closed before the web server's graceful shutdown waits on them
+    @Override
+    public void stop() {
+        running = false;
+        dispatcher.shutdown();
+        writers.shutdown();
+        bookingSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        staffSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void deliver(BookingStatusEvent event) {
+        Set<DataWithMediaType> frame = frame(event);
+        if (frame == null) {
+            return;
+        }
+        Set<Subscriber> subscribers = bookingSubscribers.get(event.token());
+        if (subscribers != null) {
+            for (Subscriber subscriber : subscribers) {
+                offer(subscriber, frame, () -> removeBookingSubscriber(event.token(), subscriber));
+            }
+        }
+        for (Subscriber subscriber : staffSubscribers) {
+            if (subscriber.accepts(event)) {
+                offer(subscriber, frame, () -> removeStaffSubscriber(subscriber));
+            }
+        }
+    }
+
+    // Buffers the frame and makes sure a writer drains the subscriber. A full buffer means the client
+    // stopped reading: it is dropped instead of holding back the caller or the other subscribers. The
+    // emitter is completed by the writer, which may still be blocked in a write to that client.
+    private void offer(Subscriber subscriber, Set<DataWithMediaType> frame, Runnable remove) {
+        if (!subscriber.buffer.offer(frame)) {
+            if (!subscriber.lagging) {
+                subscriber.lagging = true;
+                remove.run();
+                logger.warn("Event subscriber fell {} events behind, disconnecting it", subscriberBuffer);
+            }
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(subscriber, remove));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    // Writes everything buffered for one subscriber; one drain per subscriber runs at a time, so frames keep their order
+    private void drain(Subscriber subscriber, Runnable remove) {
+        do {
+            Set<DataWithMediaType> frame;
+            while ((frame = subscriber.buffer.poll()) != null) {
+                if (subscriber.lagging) {
+                    subscriber.buffer.clear();
+                    subscriber.emitter.complete();
+                } else if (!subscriber.send(frame)) {
+                    subscriber.buffer.clear();
+                    remove.run();
+                }
+            }
+            subscriber.draining.set(false);
+            // a frame offered after the last poll but before the flag was cleared found a drain still running
+        } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private Subscriber register(String municipality) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        return new Subscriber(createEmitter(timeoutMs), municipality, subscriberBuffer);
+    }
+
+    SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private Set<DataWithMediaType> frame(BookingStatusEvent event) {
+        try {
+            return SseEmitter.event()
+                .name(STATUS_EVENT)
+                .id(String.valueOf(event.version()))
+                .data(objectMapper.writeValueAsString(event))
+                .build();
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize status event for a booking", e);
+            return null;
+        }
+    }
+
+    private void removeBookingSubscriber(String token, Subscriber subscriber) {
+        Set<Subscriber> subscribers = bookingSubscribers.get(token);
+        if (subscribers != null && subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            bookingSubscribers.computeIfPresent(token, (key, remaining) -> remaining.isEmpty() ? null : remaining);
+        }
+    }
+
+    private void removeStaffSubscriber(Subscriber subscriber) {
+        if (staffSubscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final String municipality;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean lagging;
+        private volatile long lastSent = System.nanoTime();
+
+        private Subscriber(SseEmitter emitter, String municipality, int bufferSize) {
+            this.emitter = emitter;
+            this.municipality = municipality;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private boolean accepts(BookingStatusEvent event) {
+            return municipality == null || municipality.equals(event.municipality());
+        }
+
+        private boolean idleSince(long nanos) {
+            return lastSent - nanos <= 0;
+        }
+
+        // False when the client has gone away; the emitter is then completed and should be dropped
+        private boolean send(Set<DataWithMediaType> frame) {
+            try {
+                emitter.send(frame);
+                lastSent = System.nanoTime();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
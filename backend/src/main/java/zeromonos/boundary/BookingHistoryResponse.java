@@ -0,0 +1,13 @@
+package zeromonos.boundary;
+
+import zeromonos.data.BookingHistoryRequest;
+
+import java.time.LocalDateTime;
+
+// One status change; the booking it belongs to is the one in the request path, so it is not repeated
+public record BookingHistoryResponse(Long id, String status, LocalDateTime timestamp) {
+
+    static BookingHistoryResponse from(BookingHistoryRequest entry) {
+        return new BookingHistoryResponse(entry.getId(), entry.getStatus(), entry.getTimestamp());
+    }
+}
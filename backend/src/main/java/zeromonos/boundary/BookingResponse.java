@@ -0,0 +1,14 @@
+package zeromonos.boundary;
+
+import zeromonos.data.BookingRequest;
+
+import java.time.LocalDateTime;
+
+public record BookingResponse(Long id, String token, String description, String municipality, LocalDateTime date,
+                              String status, Long version) {
+
+    static BookingResponse from(BookingRequest booking) {
+        return new BookingResponse(booking.getId(), booking.getToken(), booking.getDescription(),
+            booking.getMunicipality(), booking.getDate(), booking.getStatus(), booking.getVersion());
+    }
+}
@@ -0,0 +1,41 @@
+package zeromonos.boundary;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * ETag handling for GET endpoints. Responses may be stored by clients but must be revalidated
+ * (Cache-Control: no-cache), and the current tag is only looked up when the request carries If-None-Match.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static <T> Optional<ResponseEntity<T>> notModified(WebRequest request, Supplier<Optional<String>> currentTag) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return Optional.empty();
+        }
+        Optional<String> tag = currentTag.get();
+        if (tag.isEmpty() || !request.checkNotModified(tag.get())) {
+            return Optional.empty();
+        }
+        return Optional.of(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(tag.get())
+            .cacheControl(CacheControl.noCache())
+            .build());
+    }
+
+    static <T> ResponseEntity<T> ok(String tag, T body) {
+        return ResponseEntity.ok()
+            .eTag(tag)
+            .cacheControl(CacheControl.noCache())
+            .body(body);
+    }
+}
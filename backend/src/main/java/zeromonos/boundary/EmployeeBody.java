@@ -0,0 +1,5 @@
+package zeromonos.boundary;
+
+// Body of POST /api/employees
+public record EmployeeBody(String name, String email, String municipality, String role) {
+}
@@ -5,10 +5,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import zeromonos.data.EmployeeRequest;
 import zeromonos.data.EmployeeRepository;
+import zeromonos.service.WorkTaskService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = "*")
 @RestController
@@ -16,36 +18,45 @@ import java.util.List;
 public class EmployeeController {
 
     private final EmployeeRepository employeeRepository;
+    private final WorkTaskService workTaskService;
     private static final Logger logger = LoggerFactory.getLogger(EmployeeController.class);
 
-    public EmployeeController(EmployeeRepository employeeRepository) {
+    public EmployeeController(EmployeeRepository employeeRepository, WorkTaskService workTaskService) {
         this.employeeRepository = employeeRepository;
+        this.workTaskService = workTaskService;
     }
 
     @PostMapping
-    public ResponseEntity<EmployeeRequest> createEmployee(@RequestBody EmployeeRequest employee) {
-        EmployeeRequest saved = employeeRepository.save(employee);
+    public ResponseEntity<EmployeeResponse> createEmployee(@RequestBody EmployeeBody employee) {
+        EmployeeRequest saved = workTaskService.createEmployee(
+            employee.name(), employee.email(), employee.municipality(), employee.role());
         logger.info("Employee created");
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        return ResponseEntity.status(HttpStatus.CREATED).body(EmployeeResponse.from(saved));
     }
 
     @GetMapping
-    public ResponseEntity<List<EmployeeRequest>> getAllEmployees() {
+    public ResponseEntity<List<EmployeeResponse>> getAllEmployees() {
         logger.info("Received request to get all employees");
-        return ResponseEntity.ok(employeeRepository.findAll());
+        return ResponseEntity.ok(employeeRepository.findAll().stream().map(EmployeeResponse::from).toList());
+    }
+
+    // GET /api/employees/cache/stats - Second-level cache hits and misses for employees and municipality lists
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Long>> getCacheStats() {
+        return ResponseEntity.ok(workTaskService.getEmployeeCacheStats());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<EmployeeRequest> getEmployee(@PathVariable Long id) {
+    public ResponseEntity<EmployeeResponse> getEmployee(@PathVariable Long id) {
         logger.info("Received request to get employee");
         return employeeRepository.findById(id)
-            .map(ResponseEntity::ok)
+            .map(employee -> ResponseEntity.ok(EmployeeResponse.from(employee)))
             .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/municipality/{municipality}")
-    public ResponseEntity<List<EmployeeRequest>> getEmployeesByMunicipality(@PathVariable String municipality) {
+    public ResponseEntity<List<EmployeeResponse>> getEmployeesByMunicipality(@PathVariable String municipality) {
         logger.info("Received request to get employees for municipality");
-        return ResponseEntity.ok(employeeRepository.findByMunicipality(municipality));
+        return ResponseEntity.ok(employeeRepository.findByMunicipality(municipality).stream().map(EmployeeResponse::from).toList());
     }
 }
\ No newline at end of file
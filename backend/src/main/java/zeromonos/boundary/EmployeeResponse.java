@@ -0,0 +1,11 @@
+package zeromonos.boundary;
+
+import zeromonos.data.EmployeeRequest;
+
+public record EmployeeResponse(Long id, String name, String email, String municipality, String role) {
+
+    static EmployeeResponse from(EmployeeRequest employee) {
+        return new EmployeeResponse(employee.getId(), employee.getName(), employee.getEmail(),
+            employee.getMunicipality(), employee.getRole());
+    }
+}
@@ -0,0 +1,232 @@
+package zeromonos.boundary;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Idempotency-Key support for the endpoints that create bookings or change state. The first request with a key
+ * runs normally and its response is kept for ttl; a retry with the same key, method and path gets that response
+ * back without reaching the controller, so a timed-out create that is retried cannot take a second daily slot.
+ * A retry that arrives while the first request is still running gets 409, and a key reused with a different
+ * body gets 422. Server errors and 429s are not kept, so those can be retried with the same key.
+ * Keys are scoped to the client IP, so two clients sending the same key do not see each other's responses.
+ * Keys live in memory on the instance that served the first request.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter implements MeterBinder {
+
+    static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // method and path of every request that honours the header
+    private static final List<String[]> ROUTES = List.of(
+        new String[] {"POST", "/api/bookings"},
+        new String[] {"POST", "/api/bookings/batch"},
+        new String[] {"PUT", "/api/bookings/*/cancel"},
+        new String[] {"PUT", "/api/bookings/*/status"},
+        new String[] {"POST", "/api/tasks"});
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Cache<String, Entry> entries;
+    private volatile Counter replays;
+
+    public IdempotencyFilter(@Value("${bookings.idempotency.max-keys:100000}") long maxKeys,
+                             @Value("${bookings.idempotency.ttl:PT24H}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return ROUTES.stream().noneMatch(route -> route[0].equals(request.getMethod()) && pathMatcher.match(route[1], path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + HEADER);
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        String scope = request.getRemoteAddr() + " " + request.getMethod() + " " + request.getRequestURI() + " " + key;
+        Entry claim = new Entry(digest(body), null);
+        Entry existing = entries.asMap().putIfAbsent(scope, claim);
+        if (existing != null) {
+            answerRetry(existing, claim, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper recorded = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(new ReplayableRequest(request, body), recorded);
+        } catch (IOException | ServletException | RuntimeException e) {
+            entries.asMap().remove(scope, claim);
+            throw e;
+        }
+        int status = recorded.getStatus();
+        if (status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+            entries.put(scope, new Entry(claim.fingerprint(), StoredResponse.of(recorded)));
+        } else {
+            entries.asMap().remove(scope, claim);
+        }
+        recorded.copyBodyToResponse();
+    }
+
+    private void answerRetry(Entry existing, Entry retry, HttpServletResponse response) throws IOException {
+        if (!Arrays.equals(existing.fingerprint(), retry.fingerprint())) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), HEADER + " was already used with a different request");
+            return;
+        }
+        if (existing.response() == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + HEADER + " is still in progress");
+            return;
+        }
+        existing.response().writeTo(response);
+        if (replays != null) {
+            replays.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "idempotency-keys");
+        replays = Counter.builder("http.idempotency.replays")
+            .description("Responses answered from a stored Idempotency-Key result")
+            .register(registry);
+    }
+
+    private static byte[] digest(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // fingerprint is the SHA-256 of the request body; response is null while the first request is running
+    private record Entry(byte[] fingerprint, StoredResponse response) {}
+
+    // the container keeps the content type apart from the other headers, so it is stored on its own
+    private record StoredResponse(int status, String contentType, List<Map.Entry<String, String>> headers, byte[] body) {
+
+        static StoredResponse of(ContentCachingResponseWrapper response) {
+            List<Map.Entry<String, String>> headers = new ArrayList<>();
+            for (String name : response.getHeaderNames()) {
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                    response.getHeaders(name).forEach(value -> headers.add(Map.entry(name, value)));
+                }
+            }
+            return new StoredResponse(response.getStatus(), response.getContentType(), List.copyOf(headers),
+                response.getContentAsByteArray());
+        }
+
+        void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            headers.forEach(header -> response.addHeader(header.getKey(), header.getValue()));
+            response.setHeader(REPLAYED_HEADER, "true");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    // The body was read to fingerprint it; the controller reads this copy instead
+    private static final class ReplayableRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private ReplayableRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the whole body is already in memory, so it is available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package zeromonos.boundary;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client IP and controller, so one client flooding the bookings endpoints cannot starve the
+ * others. A bucket refills at per-second and holds up to burst requests; when it is empty the request gets 429
+ * with a Retry-After telling the client when the next token is due.
+ * Each bucket is a single AtomicLong holding the time its next token is due (the GCRA form of a token bucket),
+ * updated with compare-and-set, so admission never locks. Buckets live in a Caffeine map, whose reads are
+ * lock-free and whose writes lock one bin; buckets idle for idle-timeout are evicted, and by then they are full.
+ * Behind a proxy, enable server.forward-headers-strategy so the client IP is the forwarded one.
+ */
+@Component
+// after the observation filter, so rejections still show in http.server.requests, and before IdempotencyFilter
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    static final String REQUESTS_METRIC = "http.rate-limit.requests";
+
+    // path prefix and the name of its limit under api.rate-limit; one prefix per controller
+    private static final Map<String, String> GROUPS = new LinkedHashMap<>();
+    static {
+        GROUPS.put("/api/bookings", "bookings");
+        GROUPS.put("/api/availability", "availability");
+        GROUPS.put("/api/tasks", "tasks");
+        GROUPS.put("/api/employees", "employees");
+    }
+
+    private final boolean enabled;
+    private final Map<String, Limit> limits = new LinkedHashMap<>();
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier clock;
+    // allowed and rejected counter per group, set once metrics are bound
+    private volatile Map<String, Counter[]> outcomes = Map.of();
+
+    @Autowired
+    public RateLimitFilter(Environment environment) {
+        this(environment, System::nanoTime);
+    }
+
+    RateLimitFilter(Environment environment, LongSupplier clock) {
+        this.enabled = environment.getProperty("api.rate-limit.enabled", Boolean.class, true);
+        Duration idleTimeout = environment.getProperty("api.rate-limit.idle-timeout", Duration.class, Duration.ofMinutes(10));
+        long maxBuckets = environment.getProperty("api.rate-limit.max-buckets", Long.class, 100_000L);
+        for (String group : GROUPS.values()) {
+            double perSecond = environment.getProperty("api.rate-limit." + group + ".per-second", Double.class, 10.0);
+            int burst = environment.getProperty("api.rate-limit." + group + ".burst", Integer.class, 20);
+            limits.put(group, Limit.of(perSecond, burst));
+        }
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxBuckets)
+            .expireAfterAccess(idleTimeout)
+            .build();
+        this.clock = clock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || groupOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String group = groupOf(request);
+        AtomicLong bucket = buckets.get(request.getRemoteAddr() + " " + group, key -> new AtomicLong(Long.MIN_VALUE));
+        long waitNanos = limits.get(group).acquire(bucket, clock.getAsLong());
+        count(group, waitNanos == 0);
+        if (waitNanos > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, Counter[]> counters = new LinkedHashMap<>();
+        for (String group : GROUPS.values()) {
+            counters.put(group, new Counter[] {outcome(registry, group, "allowed"), outcome(registry, group, "rejected")});
+        }
+        outcomes = counters;
+    }
+
+    private static Counter outcome(MeterRegistry registry, String group, String outcome) {
+        return Counter.builder(REQUESTS_METRIC)
+            .description("Requests checked by the rate limiter, by controller and outcome")
+            .tags("group", group, "outcome", outcome)
+            .register(registry);
+    }
+
+    private void count(String group, boolean allowed) {
+        Counter[] counters = outcomes.get(group);
+        if (counters != null) {
+            counters[allowed ? 0 : 1].increment();
+        }
+    }
+
+    private static String groupOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Map.Entry<String, String> group : GROUPS.entrySet()) {
+            String prefix = group.getKey();
+            if (path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/')) {
+                return group.getValue();
+            }
+        }
+        return null;
+    }
+
+    // interval between tokens and how far ahead of the clock the next due time may run (burst - 1 intervals)
+    record Limit(long intervalNanos, long toleranceNanos) {
+
+        static Limit of(double perSecond, int burst) {
+            long interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+            return new Limit(interval, interval * (Math.max(1, burst) - 1L));
+        }
+
+        // Takes one token; returns 0 when admitted, otherwise how long until a token is due
+        long acquire(AtomicLong bucket, long now) {
+            while (true) {
+                long due = bucket.get();
+                long next = Math.max(due, now - toleranceNanos);
+                if (next > now) {
+                    return next - now;
+                }
+                if (bucket.compareAndSet(due, next + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package zeromonos.boundary;
+
+// Body of PUT /api/bookings/{token}/status
+public record StatusUpdateBody(String status) {
+}
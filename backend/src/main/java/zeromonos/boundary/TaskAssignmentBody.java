@@ -0,0 +1,5 @@
+package zeromonos.boundary;
+
+// Body of POST /api/tasks
+public record TaskAssignmentBody(String bookingToken, Long employeeId) {
+}
@@ -0,0 +1,5 @@
+package zeromonos.boundary;
+
+// Body of PUT /api/tasks/{id}/complete
+public record TaskCompletionBody(String notes) {
+}
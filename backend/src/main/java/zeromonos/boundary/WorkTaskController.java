@@ -1,111 +1,141 @@
 package zeromonos.boundary;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import zeromonos.data.TaskSummary;
 import zeromonos.data.WorkTaskRequest;
-import zeromonos.data.BookingRequest;
-import zeromonos.data.EmployeeRequest;
 import zeromonos.data.WorkTaskRepository;
-import zeromonos.data.EmployeeRepository;
-import zeromonos.service.BookingService;
+import zeromonos.service.DailyLimitReachedException;
+import zeromonos.service.TaskDispatchResult;
+import zeromonos.service.TaskDispatchService;
+import zeromonos.service.WorkTaskPage;
+import zeromonos.service.WorkTaskService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = WorkTaskController.NEXT_CURSOR_HEADER)
 @RestController
 @RequestMapping("/api/tasks")
 public class WorkTaskController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_DISPATCH_SIZE = 10000;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final WorkTaskRepository workTaskRepository;
-    private final EmployeeRepository employeeRepository;
-    private final BookingService bookingService;
+    private final WorkTaskService workTaskService;
+    private final TaskDispatchService dispatchService;
     private static final Logger logger = LoggerFactory.getLogger(WorkTaskController.class);
 
-    public WorkTaskController(WorkTaskRepository workTaskRepository, EmployeeRepository employeeRepository, BookingService bookingService) {
+    public WorkTaskController(WorkTaskRepository workTaskRepository, WorkTaskService workTaskService,
+                              TaskDispatchService dispatchService) {
         this.workTaskRepository = workTaskRepository;
-        this.employeeRepository = employeeRepository;
-        this.bookingService = bookingService;
+        this.workTaskService = workTaskService;
+        this.dispatchService = dispatchService;
     }
 
     @PostMapping
-    public ResponseEntity<WorkTaskRequest> assignTask(@RequestBody Map<String, Object> request) {
-        String token = (String) request.get("bookingToken");
-        Long employeeId = Long.valueOf(request.get("employeeId").toString());
-
-        Optional<BookingRequest> bookingOpt = bookingService.getBookingByToken(token);
-        Optional<EmployeeRequest> employeeOpt = employeeRepository.findById(employeeId);
-
-        if (bookingOpt.isEmpty() || employeeOpt.isEmpty()) {
+    public ResponseEntity<TaskSummary> assignTask(@RequestBody TaskAssignmentBody request) {
+        if (request.bookingToken() == null || request.employeeId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            WorkTaskRequest saved = workTaskService.assignTask(request.bookingToken(), request.employeeId());
+            logger.info("Task assigned");
+            return ResponseEntity.status(HttpStatus.CREATED).body(TaskSummary.of(saved));
+        } catch (IllegalArgumentException e) {
             logger.warn("Booking or employee not found");
             return ResponseEntity.notFound().build();
-        }
-
-        BookingRequest booking = bookingOpt.get();
-        EmployeeRequest employee = employeeOpt.get();
-
-        // Check if booking already has a task
-        List<WorkTaskRequest> existingTasks = workTaskRepository.findByBooking(booking);
-        if (!existingTasks.isEmpty()) {
+        } catch (DailyLimitReachedException e) {
+            logger.warn("Booking limit reached, cancelled booking not assigned");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (IllegalStateException e) {
             logger.warn("Booking already has a task assigned");
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
+    }
 
-        WorkTaskRequest task = new WorkTaskRequest(booking, employee);
-        WorkTaskRequest saved = workTaskRepository.save(task);
-        
-        booking.setStatus("ASSIGNED");
-        bookingService.save(booking);
-
-        logger.info("Task assigned");
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    // POST /api/tasks/dispatch - Assign received bookings to the least-loaded employee of their municipality
+    @PostMapping("/dispatch")
+    public ResponseEntity<TaskDispatchResult> dispatchTasks(@RequestParam(defaultValue = "1000") int limit) {
+        if (limit < 1 || limit > MAX_DISPATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Received request to dispatch up to {} bookings", limit);
+        return ResponseEntity.ok(dispatchService.dispatchPending(limit));
     }
 
     @GetMapping
-    public ResponseEntity<List<WorkTaskRequest>> getAllTasks() {
+    public ResponseEntity<List<TaskSummary>> getAllTasks(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
         logger.info("Received request to get all tasks");
-        return ResponseEntity.ok(workTaskRepository.findAll());
+        return page(workTaskService.findTasks(after, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<WorkTaskRequest> getTask(@PathVariable Long id) {
+    public ResponseEntity<TaskSummary> getTask(@PathVariable Long id, WebRequest request) {
         logger.info("Received request to get task");
+        Optional<ResponseEntity<TaskSummary>> notModified =
+            ConditionalGet.notModified(request, () -> workTaskService.getTaskTag(id));
+        if (notModified.isPresent()) {
+            return notModified.get();
+        }
         Optional<WorkTaskRequest> task = workTaskRepository.findById(id);
-        return task.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        return task.map(found -> ConditionalGet.ok(WorkTaskService.tagOf(found), TaskSummary.of(found)))
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}/complete")
-    public ResponseEntity<WorkTaskRequest> completeTask(@PathVariable Long id, @RequestBody Map<String, String> body) {
-        Optional<WorkTaskRequest> taskOpt = workTaskRepository.findById(id);
-        if (taskOpt.isEmpty()) {
+    public ResponseEntity<TaskSummary> completeTask(@PathVariable Long id, @RequestBody TaskCompletionBody body) {
+        WorkTaskRequest task;
+        try {
+            task = workTaskService.completeTask(id, body.notes());
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Task or booking changed concurrently, completion rejected");
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DailyLimitReachedException e) {
+            logger.warn("Booking limit reached, cancelled booking not completed");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
         }
 
-        WorkTaskRequest task = taskOpt.get();
-        task.setStatus("COMPLETED");
-        task.setCompletedAt(LocalDateTime.now());
-        task.setNotes(body.get("notes"));
-        workTaskRepository.save(task);
-
-        task.getBooking().setStatus("COMPLETED");
-        bookingService.save(task.getBooking());
-
         logger.info("Task {} completed", id);
-        return ResponseEntity.ok(task);
+        return ResponseEntity.ok(TaskSummary.of(task));
     }
 
     @GetMapping("/employee/{employeeId}")
-    public ResponseEntity<List<WorkTaskRequest>> getTasksByEmployee(@PathVariable Long employeeId) {
-        Optional<EmployeeRequest> employee = employeeRepository.findById(employeeId);
-        if (employee.isEmpty()) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<List<TaskSummary>> getTasksByEmployee(
+            @PathVariable Long employeeId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
         }
         logger.info("Received request to get tasks for employee");
-        return ResponseEntity.ok(workTaskRepository.findByAssignedEmployee(employee.get()));
+        try {
+            return page(workTaskService.findTasksByEmployee(employeeId, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    private static ResponseEntity<List<TaskSummary>> page(WorkTaskPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return response.body(page.items());
     }
 }
\ No newline at end of file
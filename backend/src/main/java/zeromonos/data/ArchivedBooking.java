@@ -0,0 +1,49 @@
+package zeromonos.data;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Read-only row of booking_archive, written by BookingArchiver
+@Entity
+@Immutable
+@Table(name = "booking_archive")
+public class ArchivedBooking {
+    @Id
+    private Long id;
+    private String token;
+    private String description;
+    private String municipality;
+    private LocalDateTime date;
+    private String status;
+    private Long version;
+    private LocalDateTime archivedAt;
+
+    public ArchivedBooking() {}
+
+    // Detached booking carrying the archived state; BookingService refuses to save it
+    public BookingRequest toBooking() {
+        BookingRequest booking = new BookingRequest(description, municipality, date, token);
+        booking.setId(id);
+        booking.setStatus(status);
+        booking.setVersion(version);
+        booking.markArchived();
+        return booking;
+    }
+    public Long getId() {
+        return id;
+    }
+    public String getToken() {
+        return token;
+    }
+    public String getStatus() {
+        return status;
+    }
+    public Long getVersion() {
+        return version;
+    }
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,39 @@
+package zeromonos.data;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Read-only row of booking_history_archive, written by BookingArchiver
+@Entity
+@Immutable
+@Table(name = "booking_history_archive")
+public class ArchivedBookingHistory {
+    @Id
+    private Long id;
+    private Long bookingId;
+    private String status;
+    private LocalDateTime timestamp;
+    private LocalDateTime archivedAt;
+
+    public ArchivedBookingHistory() {}
+
+    public BookingHistoryRequest toHistory(BookingRequest booking) {
+        BookingHistoryRequest history = new BookingHistoryRequest(booking, status, timestamp);
+        history.setId(id);
+        return history;
+    }
+    public Long getId() {
+        return id;
+    }
+    public Long getBookingId() {
+        return bookingId;
+    }
+    public String getStatus() {
+        return status;
+    }
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,13 @@
+package zeromonos.data;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ArchivedBookingHistoryRepository extends JpaRepository<ArchivedBookingHistory, Long> {
+    List<ArchivedBookingHistory> findByBookingIdOrderById(Long bookingId);
+
+    @Query("select count(h) as total, max(h.id) as lastId from ArchivedBookingHistory h where h.bookingId = :bookingId")
+    HistorySummary summarizeByBooking(Long bookingId);
+}
@@ -0,0 +1,13 @@
+package zeromonos.data;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    Optional<ArchivedBooking> findByToken(String token);
+
+    @Query("select b.id as id, b.version as version from ArchivedBooking b where b.token = :token")
+    Optional<BookingVersion> findVersionByToken(String token);
+}
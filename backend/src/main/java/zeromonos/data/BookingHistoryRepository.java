@@ -1,8 +1,13 @@
 package zeromonos.data;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
 import java.util.List;
 
 public interface BookingHistoryRepository extends JpaRepository<BookingHistoryRequest, Long> {
     List<BookingHistoryRequest> findByBooking(BookingRequest booking);
+
+    @Query("select count(h) as total, max(h.id) as lastId from BookingHistoryRequest h where h.booking.id = :bookingId")
+    HistorySummary summarizeByBooking(Long bookingId);
 }
\ No newline at end of file
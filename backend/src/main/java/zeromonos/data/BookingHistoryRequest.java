@@ -4,12 +4,16 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_history_booking_id", columnList = "booking_id, id"))
 public class BookingHistoryRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_history_request_seq")
+    @SequenceGenerator(name = "booking_history_request_seq", sequenceName = "booking_history_request_seq", allocationSize = 50)
     private Long id;
 
     private String status;
+    // partition key: booking_history_request is range-partitioned by month of timestamp
+    @Column(nullable = false)
     private LocalDateTime timestamp;
 
     @ManyToOne
@@ -1,10 +1,43 @@
 package zeromonos.data;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
-public interface BookingRepository extends JpaRepository<BookingRequest, Long> {
+public interface BookingRepository extends JpaRepository<BookingRequest, Long>, JpaSpecificationExecutor<BookingRequest> {
     Optional<BookingRequest> findByToken(String token);
     List<BookingRequest> findByMunicipality(String municipality);
-}
\ No newline at end of file
+
+    // Id and version only, for conditional requests that must not load the whole booking
+    @Query("select b.id as id, b.version as version from BookingRequest b where b.token = :token")
+    Optional<BookingVersion> findVersionByToken(String token);
+
+    @Query("select count(b) from BookingRequest b where b.municipality = :municipality "
+        + "and b.date >= :start and b.date < :end and b.status <> 'CANCELLED'")
+    long countActiveBetween(String municipality, LocalDateTime start, LocalDateTime end);
+
+    default long countActiveOn(String municipality, LocalDate day) {
+        return countActiveBetween(municipality, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    // Bounded below by date so only the partitions from that month on are read
+    @Query("select b.municipality as municipality, cast(b.date as LocalDate) as day, count(b) as total "
+        + "from BookingRequest b where b.status <> 'CANCELLED' and b.date >= :from "
+        + "group by b.municipality, cast(b.date as LocalDate)")
+    List<DailyBookingCount> countActiveByMunicipalityAndDay(LocalDateTime from);
+
+    // Received bookings that no task points at yet, oldest first, one keyset page at a time
+    @Query("select b from BookingRequest b where b.status = 'RECEIVED' and b.id > :after "
+        + "and not exists (select 1 from WorkTaskRequest t where t.booking = b) order by b.id")
+    List<BookingRequest> findUndispatched(long after, Limit limit);
+
+    // Transaction scoped advisory lock on one (municipality, day) pair, released on commit or rollback
+    @Query(value = "select 1 from pg_advisory_xact_lock(hashtext(:municipality), :epochDay)", nativeQuery = true)
+    Integer lockDay(String municipality, int epochDay);
+}
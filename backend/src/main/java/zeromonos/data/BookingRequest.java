@@ -1,18 +1,47 @@
 package zeromonos.data;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_booking_municipality_date", columnList = "municipality, date"),
+    @Index(name = "idx_booking_municipality_id", columnList = "municipality, id"),
+    @Index(name = "idx_booking_status_id", columnList = "status, id"),
+    @Index(name = "idx_booking_date", columnList = "date"),
+    @Index(name = "idx_booking_token", columnList = "token")
+})
 public class BookingRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_request_seq")
+    @SequenceGenerator(name = "booking_request_seq", sequenceName = "booking_request_seq", allocationSize = 50)
     private Long id;
     private String token;
     private String description;
     private String municipality;
+    // partition key: booking_request is range-partitioned by month of date
+    @Column(nullable = false)
     private LocalDateTime date;
     private String status;
+    // written in the same transaction as the status, unlike the history row, which is written behind
+    private LocalDateTime statusChangedAt;
+
+    // optimistic lock; concurrent writers of the same booking fail on flush instead of overwriting each other
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // status as last read from or written to the database, used to detect transitions on save
+    @Transient
+    private String persistedStatus;
+
+    // loaded from booking_archive; archived bookings are read-only
+    @Transient
+    private boolean archived;
 
     public BookingRequest() {}
     public BookingRequest(String description, String municipality, LocalDateTime date, String token) {
@@ -22,6 +51,17 @@ public class BookingRequest {
         this.status = "RECEIVED";
         this.token = token;
     }
+    // Detached snapshot of the persisted state, safe to hand to another request
+    public BookingRequest snapshot() {
+        BookingRequest copy = new BookingRequest(description, municipality, date, token);
+        copy.id = id;
+        copy.status = status;
+        copy.statusChangedAt = statusChangedAt;
+        copy.version = version;
+        copy.persistedStatus = status;
+        copy.archived = archived;
+        return copy;
+    }
     public Long getId() {
         return id;
     }
@@ -58,5 +98,45 @@ public class BookingRequest {
     public void setStatus(String status) {
         this.status = status;
     }
+    public LocalDateTime getStatusChangedAt() {
+        return statusChangedAt;
+    }
+    public void setStatusChangedAt(LocalDateTime statusChangedAt) {
+        this.statusChangedAt = statusChangedAt;
+    }
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    @JsonIgnore
+    public String getPersistedStatus() {
+        return persistedStatus;
+    }
+
+    @JsonIgnore
+    public boolean isArchived() {
+        return archived;
+    }
+    public void markArchived() {
+        this.archived = true;
+        this.persistedStatus = status;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void stampStatusChange() {
+        if (statusChangedAt == null || (persistedStatus != null && !persistedStatus.equals(status))) {
+            statusChangedAt = LocalDateTime.now();
+        }
+    }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    public void rememberPersistedStatus() {
+        this.persistedStatus = status;
+    }
 }
 
@@ -0,0 +1,20 @@
+package zeromonos.data;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {}
+
+    // Every filter is optional; a null argument matches all bookings
+    public static Specification<BookingRequest> matching(String municipality, String status, LocalDate from, LocalDate to, Long afterId) {
+        return Specification.allOf(
+            municipality == null ? null : (root, query, cb) -> cb.equal(root.get("municipality"), municipality),
+            status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status),
+            from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), from.atStartOfDay()),
+            to == null ? null : (root, query, cb) -> cb.lessThan(root.get("date"), to.plusDays(1).atStartOfDay()),
+            afterId == null ? null : (root, query, cb) -> cb.greaterThan(root.get("id"), afterId));
+    }
+}
@@ -0,0 +1,6 @@
+package zeromonos.data;
+
+public interface BookingVersion {
+    Long getId();
+    Long getVersion();
+}
@@ -0,0 +1,9 @@
+package zeromonos.data;
+
+import java.time.LocalDate;
+
+public interface DailyBookingCount {
+    String getMunicipality();
+    LocalDate getDay();
+    long getTotal();
+}
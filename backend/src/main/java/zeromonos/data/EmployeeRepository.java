@@ -1,10 +1,20 @@
 package zeromonos.data;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<EmployeeRequest, Long> {
+    String MUNICIPALITY_QUERY_REGION = "employees-by-municipality";
+
+    // Result ids are kept in the query cache and the rows come from the employees region
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = MUNICIPALITY_QUERY_REGION)
+    })
     List<EmployeeRequest> findByMunicipality(String municipality);
 }
\ No newline at end of file
@@ -1,10 +1,16 @@
 package zeromonos.data;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Employees are read on every assignment and rarely written, so they live in the second-level cache
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EmployeeRequest.CACHE_REGION)
 public class EmployeeRequest {
 
+    public static final String CACHE_REGION = "employees";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,6 @@
+package zeromonos.data;
+
+public interface EmployeeTaskCount {
+    Long getEmployeeId();
+    long getTotal();
+}
@@ -0,0 +1,6 @@
+package zeromonos.data;
+
+public interface HistorySummary {
+    long getTotal();
+    Long getLastId();
+}
@@ -0,0 +1,6 @@
+package zeromonos.data;
+
+public interface MunicipalityTaskCount {
+    String getMunicipality();
+    long getTotal();
+}
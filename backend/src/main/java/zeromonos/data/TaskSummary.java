@@ -0,0 +1,23 @@
+package zeromonos.data;
+
+import java.time.LocalDateTime;
+
+// A task with the booking and employee fields the task views show, flattened into one row
+public record TaskSummary(Long id, String status, LocalDateTime assignedAt, LocalDateTime completedAt, String notes,
+                          Long version, String bookingToken, String bookingDescription, String bookingStatus,
+                          String municipality, Long employeeId, String employeeName, String employeeRole) {
+
+    public static TaskSummary of(WorkTaskRequest task) {
+        BookingRequest booking = task.getBooking();
+        EmployeeRequest employee = task.getAssignedEmployee();
+        return new TaskSummary(task.getId(), task.getStatus(), task.getAssignedAt(), task.getCompletedAt(),
+            task.getNotes(), task.getVersion(),
+            booking == null ? null : booking.getToken(),
+            booking == null ? null : booking.getDescription(),
+            booking == null ? null : booking.getStatus(),
+            booking == null ? null : booking.getMunicipality(),
+            employee == null ? null : employee.getId(),
+            employee == null ? null : employee.getName(),
+            employee == null ? null : employee.getRole());
+    }
+}
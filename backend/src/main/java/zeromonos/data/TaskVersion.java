@@ -0,0 +1,6 @@
+package zeromonos.data;
+
+public interface TaskVersion {
+    Long getTaskVersion();
+    Long getBookingVersion();
+}
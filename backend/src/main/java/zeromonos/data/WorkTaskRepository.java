@@ -1,13 +1,39 @@
 package zeromonos.data;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WorkTaskRepository extends JpaRepository<WorkTaskRequest, Long> {
     List<WorkTaskRequest> findByAssignedEmployee(EmployeeRequest employee);
     List<WorkTaskRequest> findByStatus(String status);
     List<WorkTaskRequest> findByBooking(BookingRequest booking);
-}
\ No newline at end of file
+
+    @Query("select t.version as taskVersion, b.version as bookingVersion from WorkTaskRequest t left join t.booking b where t.id = :id")
+    Optional<TaskVersion> findVersionById(Long id);
+
+    @Query("select t.assignedEmployee.id as employeeId, count(t) as total from WorkTaskRequest t "
+        + "where t.status <> 'COMPLETED' and t.assignedEmployee is not null group by t.assignedEmployee.id")
+    List<EmployeeTaskCount> countOpenByEmployee();
+
+    @Query("select e.municipality as municipality, count(t) as total from WorkTaskRequest t join t.assignedEmployee e "
+        + "where t.status <> 'COMPLETED' group by e.municipality")
+    List<MunicipalityTaskCount> countOpenByMunicipality();
+
+    // Only the columns of the flat task view, read in one select without loading entities
+    String SUMMARY = "select new zeromonos.data.TaskSummary(t.id, t.status, t.assignedAt, t.completedAt, t.notes, t.version, "
+        + "b.token, b.description, b.status, b.municipality, e.id, e.name, e.role) "
+        + "from WorkTaskRequest t left join t.booking b left join t.assignedEmployee e ";
+
+    @Query(SUMMARY + "where t.id > :after order by t.id")
+    List<TaskSummary> findPage(@Param("after") long after, Limit limit);
+
+    @Query(SUMMARY + "where e.id = :employeeId and t.id > :after order by t.id")
+    List<TaskSummary> findPageByEmployee(@Param("employeeId") Long employeeId, @Param("after") long after, Limit limit);
+}
@@ -1,9 +1,16 @@
 package zeromonos.data;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.time.LocalDateTime;
 
 @Entity
+@Table(
+    indexes = @Index(name = "idx_task_employee_id", columnList = "employee_id, id"),
+    // one task per booking, enforced by the database rather than a read-then-insert check
+    uniqueConstraints = @UniqueConstraint(name = "uk_task_booking", columnNames = "booking_id")
+)
 public class WorkTaskRequest {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +27,11 @@ public class WorkTaskRequest {
     private LocalDateTime assignedAt;
     private LocalDateTime completedAt;
     private String notes;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
     
     public WorkTaskRequest() {}
     
@@ -72,4 +84,10 @@ public class WorkTaskRequest {
     public void setNotes(String notes) {
         this.notes = notes;
     }
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
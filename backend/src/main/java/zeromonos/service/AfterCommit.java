@@ -0,0 +1,49 @@
+package zeromonos.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Defers in-memory side effects (caches, counters, queued history) until the surrounding transaction commits,
+// so a rolled back write never leaves them ahead of the database. Without a transaction they run straight away.
+final class AfterCommit {
+
+    private AfterCommit() {}
+
+    static void run(Runnable onCommit) {
+        run(onCommit, null);
+    }
+
+    static void run(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        register(onCommit, onRollback);
+    }
+
+    // Undoes an in-memory change made ahead of the write, also when the rollback happens after the caller
+    // returned. Without a transaction nothing can roll back, so there is nothing to register.
+    static void onRollback(Runnable onRollback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            register(null, onRollback);
+        }
+    }
+
+    private static void register(Runnable onCommit, Runnable onRollback) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (onCommit != null) {
+                    onCommit.run();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK && onRollback != null) {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+}
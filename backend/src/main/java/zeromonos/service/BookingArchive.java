@@ -0,0 +1,48 @@
+package zeromonos.service;
+
+import org.springframework.stereotype.Component;
+
+import zeromonos.data.ArchivedBooking;
+import zeromonos.data.ArchivedBookingHistoryRepository;
+import zeromonos.data.ArchivedBookingRepository;
+import zeromonos.data.BookingHistoryRequest;
+import zeromonos.data.BookingRequest;
+import zeromonos.data.BookingVersion;
+import zeromonos.data.HistorySummary;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read side of the booking archive. Lookups that miss the live tables fall back to it, so archived bookings
+ * keep answering by token with the same shape they had before {@link BookingArchiver} moved them.
+ */
+@Component
+public class BookingArchive {
+
+    private final ArchivedBookingRepository bookingRepository;
+    private final ArchivedBookingHistoryRepository historyRepository;
+
+    public BookingArchive(ArchivedBookingRepository bookingRepository, ArchivedBookingHistoryRepository historyRepository) {
+        this.bookingRepository = bookingRepository;
+        this.historyRepository = historyRepository;
+    }
+
+    public Optional<BookingRequest> findByToken(String token) {
+        return bookingRepository.findByToken(token).map(ArchivedBooking::toBooking);
+    }
+
+    public Optional<BookingVersion> findVersionByToken(String token) {
+        return bookingRepository.findVersionByToken(token);
+    }
+
+    public List<BookingHistoryRequest> history(BookingRequest booking) {
+        return historyRepository.findByBookingIdOrderById(booking.getId()).stream()
+            .map(row -> row.toHistory(booking))
+            .toList();
+    }
+
+    public HistorySummary summarizeHistory(Long bookingId) {
+        return historyRepository.summarizeByBooking(bookingId);
+    }
+}
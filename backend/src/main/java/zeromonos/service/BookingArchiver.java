@@ -0,0 +1,132 @@
+package zeromonos.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves CANCELLED and COMPLETED bookings whose date is older than min-age, with their history and task,
+ * into the archive tables. Each batch is one statement and one short transaction: the bookings are picked
+ * with FOR UPDATE SKIP LOCKED, so rows another request is changing are left for the next run, and the run
+ * pauses between batches so it never holds the tables for long. Month partitions left empty are dropped.
+ * Lookups by token fall back to the archive through {@link BookingArchive}.
+ */
+@Service
+public class BookingArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingArchiver.class);
+
+    // A booking whose status changed within the retention window is kept, even if its date is old.
+    // status_changed_at commits with the change itself; the history check covers rows from before the column.
+    private static final String ARCHIVE_BATCH = """
+        with batch as (
+            select b.id, b.date from booking_request b
+            where b.status in ('CANCELLED', 'COMPLETED') and b.date < ?
+              and (b.status_changed_at is null or b.status_changed_at < ?)
+              and not exists (select 1 from booking_history_request h where h.booking_id = b.id and h.timestamp >= ?)
+            order by b.date
+            limit ?
+            for update of b skip locked
+        ), moved_bookings as (
+            delete from booking_request b using batch where b.id = batch.id and b.date = batch.date
+            returning b.id, b.date, b.description, b.municipality, b.status, b.token, b.version
+        ), archived_bookings as (
+            insert into booking_archive (id, date, description, municipality, status, token, version, archived_at)
+            select id, date, description, municipality, status, token, version, localtimestamp from moved_bookings
+        ), moved_history as (
+            delete from booking_history_request h using moved_bookings m where h.booking_id = m.id
+            returning h.id, h.booking_id, h.status, h.timestamp
+        ), archived_history as (
+            insert into booking_history_archive (id, booking_id, status, timestamp, archived_at)
+            select id, booking_id, status, timestamp, localtimestamp from moved_history
+        ), moved_tasks as (
+            delete from work_task_request t using moved_bookings m where t.booking_id = m.id
+            returning t.id, t.booking_id, t.employee_id, t.status, t.assigned_at, t.completed_at, t.notes, t.version
+        ), archived_tasks as (
+            insert into work_task_archive (id, booking_id, employee_id, status, assigned_at, completed_at, notes, version, archived_at)
+            select id, booking_id, employee_id, status, assigned_at, completed_at, notes, version, localtimestamp from moved_tasks
+        )
+        select token from moved_bookings
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingHistoryWriter historyWriter;
+    private final BookingTokenCache tokenCache;
+    private final TaskLoadIndex loadIndex;
+    private final BookingPartitionMaintenance partitionMaintenance;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int batchSize;
+    private final long pauseMs;
+    private final int maxPerRun;
+
+    public BookingArchiver(JdbcTemplate jdbcTemplate, BookingHistoryWriter historyWriter, BookingTokenCache tokenCache,
+                           TaskLoadIndex loadIndex, BookingPartitionMaintenance partitionMaintenance,
+                           @Value("${bookings.archive.enabled:true}") boolean enabled,
+                           @Value("${bookings.archive.min-age:P90D}") Duration minAge,
+                           @Value("${bookings.archive.batch-size:500}") int batchSize,
+                           @Value("${bookings.archive.pause-ms:200}") long pauseMs,
+                           @Value("${bookings.archive.max-per-run:100000}") int maxPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyWriter = historyWriter;
+        this.tokenCache = tokenCache;
+        this.loadIndex = loadIndex;
+        this.partitionMaintenance = partitionMaintenance;
+        this.enabled = enabled;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.maxPerRun = maxPerRun;
+    }
+
+    // Archives up to max-per-run bookings whose date is before the cutoff; returns how many were moved
+    public int archiveBefore(LocalDateTime cutoff) {
+        int archived = 0;
+        while (archived < maxPerRun) {
+            // history is written behind; rows still queued would otherwise be left behind in the live table
+            historyWriter.flush();
+            List<String> tokens = jdbcTemplate.queryForList(ARCHIVE_BATCH, String.class,
+                cutoff, cutoff, cutoff, Math.min(batchSize, maxPerRun - archived));
+            tokens.forEach(tokenCache::invalidate);
+            archived += tokens.size();
+            if (tokens.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            // archived tasks no longer count towards anyone's workload
+            loadIndex.reconcile();
+        }
+        partitionMaintenance.dropEmptyBefore(cutoff.toLocalDate());
+        return archived;
+    }
+
+    @Scheduled(fixedDelayString = "${bookings.archive.interval-ms:3600000}",
+        initialDelayString = "${bookings.archive.interval-ms:3600000}")
+    public void autoArchive() {
+        if (!enabled) {
+            return;
+        }
+        int archived = archiveBefore(LocalDateTime.now().minus(minAge));
+        if (archived > 0) {
+            logger.info("Archived {} bookings older than {}", archived, minAge);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package zeromonos.service;
+
+public record BookingBatchResult(int index, String status, String token) {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    public static final String INVALID = "INVALID";
+
+    static BookingBatchResult created(int index, String token) {
+        return new BookingBatchResult(index, CREATED, token);
+    }
+
+    static BookingBatchResult rejected(int index) {
+        return new BookingBatchResult(index, REJECTED, null);
+    }
+
+    static BookingBatchResult invalid(int index) {
+        return new BookingBatchResult(index, INVALID, null);
+    }
+}
@@ -0,0 +1,125 @@
+package zeromonos.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import zeromonos.data.BookingRepository;
+import zeromonos.data.DailyBookingCount;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory count of active (non cancelled) bookings per municipality and day.
+ * Admission is a compare-and-set on a single counter, so the hot path never scans the bookings table.
+ * Counters are warmed from one aggregate query and periodically reconciled against the database.
+ */
+@Component
+public class BookingCapacityLedger {
+
+    public static final int DAILY_LIMIT = 5;
+    static final String STATUS_CANCELLED = "CANCELLED";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingCapacityLedger.class);
+
+    private final BookingRepository repository;
+    private final ConcurrentHashMap<Slot, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    public BookingCapacityLedger(BookingRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        reconcile();
+        logger.info("Capacity ledger warmed with {} municipality/day slots", counters.size());
+    }
+
+    // Reserves one slot; when the counter looks full it is re-read from the database once before rejecting,
+    // so rows removed outside the service (or by another instance) do not cause false rejections.
+    public boolean tryAcquire(String municipality, LocalDate day) {
+        AtomicInteger counter = counter(municipality, day);
+        if (increment(counter)) {
+            return true;
+        }
+        counter.set((int) repository.countActiveOn(municipality, day));
+        return increment(counter);
+    }
+
+    public void release(String municipality, LocalDate day) {
+        AtomicInteger counter = counters.get(new Slot(municipality, day));
+        if (counter != null) {
+            counter.getAndUpdate(value -> value > 0 ? value - 1 : 0);
+        }
+    }
+
+    // Records bookings admitted by another path (batch intake) that already checked the database
+    public void add(String municipality, LocalDate day, int bookings) {
+        counter(municipality, day).addAndGet(bookings);
+    }
+
+    public void onStatusChange(String municipality, LocalDate day, String previousStatus, String newStatus) {
+        if (previousStatus == null || previousStatus.equals(newStatus)) {
+            return;
+        }
+        boolean wasActive = !STATUS_CANCELLED.equals(previousStatus);
+        boolean isActive = !STATUS_CANCELLED.equals(newStatus);
+        if (wasActive && !isActive) {
+            release(municipality, day);
+        } else if (!wasActive && isActive) {
+            add(municipality, day, 1);
+        }
+    }
+
+    public int count(String municipality, LocalDate day) {
+        AtomicInteger counter = counters.get(new Slot(municipality, day));
+        return counter == null ? 0 : counter.get();
+    }
+
+    public int remaining(String municipality, LocalDate day) {
+        return Math.max(0, DAILY_LIMIT - count(municipality, day));
+    }
+
+    @Scheduled(fixedDelayString = "${bookings.capacity.reconcile-interval-ms:300000}",
+        initialDelayString = "${bookings.capacity.reconcile-interval-ms:300000}")
+    // Only today and later are read back, which keeps the query on the current and future partitions.
+    // Past slots are dropped; a booking for a past day still gets the locked database re-check.
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        Set<Slot> seen = new HashSet<>();
+        for (DailyBookingCount row : repository.countActiveByMunicipalityAndDay(today.atStartOfDay())) {
+            Slot slot = new Slot(row.getMunicipality(), row.getDay());
+            seen.add(slot);
+            counters.computeIfAbsent(slot, s -> new AtomicInteger()).set((int) row.getTotal());
+        }
+        counters.forEach((slot, counter) -> {
+            if (!seen.contains(slot)) {
+                counter.set(0);
+            }
+        });
+        counters.keySet().removeIf(slot -> slot.day().isBefore(today) && !seen.contains(slot));
+    }
+
+    private AtomicInteger counter(String municipality, LocalDate day) {
+        return counters.computeIfAbsent(new Slot(municipality, day), s -> new AtomicInteger());
+    }
+
+    private static boolean increment(AtomicInteger counter) {
+        int current;
+        do {
+            current = counter.get();
+            if (current >= DAILY_LIMIT) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private record Slot(String municipality, LocalDate day) {}
+}
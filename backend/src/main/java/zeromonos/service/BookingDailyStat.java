@@ -0,0 +1,7 @@
+package zeromonos.service;
+
+import java.time.LocalDate;
+
+// Number of bookings of one municipality on one day that currently have the given status
+public record BookingDailyStat(LocalDate day, String municipality, String status, long total) {
+}
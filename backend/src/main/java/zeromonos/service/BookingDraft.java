@@ -0,0 +1,10 @@
+package zeromonos.service;
+
+import java.time.LocalDateTime;
+
+public record BookingDraft(String description, String municipality, LocalDateTime date) {
+
+    public boolean isComplete() {
+        return description != null && municipality != null && date != null;
+    }
+}
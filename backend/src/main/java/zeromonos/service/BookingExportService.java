@@ -0,0 +1,125 @@
+package zeromonos.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Streams every booking, live and archived, straight from a forward-only database cursor to an output stream.
+ * Rows are written as they are read, so memory use does not depend on the size of the table.
+ */
+@Service
+public class BookingExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    // archived bookings are moved, not copied, so the union has no duplicates
+    private static final String EXPORT_QUERY =
+        "select id, token, description, municipality, date, status from booking_request "
+        + "union all select id, token, description, municipality, date, status from booking_archive order by id";
+    private static final String[] COLUMNS = {"id", "token", "description", "municipality", "date", "status"};
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public BookingExportService(DataSource dataSource, ObjectMapper objectMapper,
+                                @Value("${bookings.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    // Postgres only uses a cursor for the fetch size when auto-commit is off, hence the read-only transaction
+    @Transactional(readOnly = true)
+    public void export(Format format, OutputStream out) throws IOException {
+        try {
+            if (format == Format.CSV) {
+                exportCsv(out);
+            } else {
+                exportNdjson(out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            int[] rows = {0};
+            jdbcTemplate.query(EXPORT_QUERY, rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField(COLUMNS[0], rs.getLong(1));
+                    for (int column = 2; column <= COLUMNS.length; column++) {
+                        generator.writeStringField(COLUMNS[column - 1], value(rs, column));
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void exportCsv(OutputStream out) throws IOException {
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+            int[] rows = {0};
+            jdbcTemplate.query(EXPORT_QUERY, rs -> {
+                try {
+                    for (int column = 1; column <= COLUMNS.length; column++) {
+                        if (column > 1) {
+                            writer.write(',');
+                        }
+                        writer.write(csv(value(rs, column)));
+                    }
+                    writer.write('\n');
+                    if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static String value(ResultSet rs, int column) throws SQLException {
+        if (column == 5) {
+            Timestamp date = rs.getTimestamp(column);
+            return date == null ? null : date.toLocalDateTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+        return rs.getString(column);
+    }
+
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
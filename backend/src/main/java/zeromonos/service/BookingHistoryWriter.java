@@ -0,0 +1,184 @@
+package zeromonos.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import zeromonos.data.BookingHistoryRepository;
+import zeromonos.data.BookingHistoryRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind writer for booking status history. Request threads only enqueue; a background worker
+ * batch-inserts the rows once flush-size rows are waiting or flush-interval has passed.
+ * When the queue stays full for offer-timeout the caller writes its row itself, which slows producers
+ * down instead of dropping history. Everything still queued is written when the application stops.
+ */
+@Component
+public class BookingHistoryWriter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingHistoryWriter.class);
+
+    private final BookingHistoryRepository historyRepository;
+    private final BlockingQueue<BookingHistoryRequest> queue;
+    private final int flushSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    // batches are written one at a time so rows keep the order they were enqueued in
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicInteger pending = new AtomicInteger();
+    // rows not yet written per booking id, so a read only waits for a flush when its own booking has some
+    private final ConcurrentHashMap<Long, Integer> pendingByBooking = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public BookingHistoryWriter(BookingHistoryRepository historyRepository,
+                                @Value("${bookings.history.queue-capacity:10000}") int queueCapacity,
+                                @Value("${bookings.history.flush-size:100}") int flushSize,
+                                @Value("${bookings.history.flush-interval-ms:200}") long flushIntervalMs,
+                                @Value("${bookings.history.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.historyRepository = historyRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushSize = flushSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    public void enqueue(BookingHistoryRequest history) {
+        pending.incrementAndGet();
+        Long bookingId = bookingId(history);
+        if (bookingId != null) {
+            pendingByBooking.merge(bookingId, 1, Integer::sum);
+        }
+        if (running && offer(history)) {
+            if (queue.size() >= flushSize) {
+                LockSupport.unpark(worker);
+            }
+            return;
+        }
+        if (running) {
+            logger.warn("History queue full, writing on the request thread");
+        }
+        writeLock.lock();
+        try {
+            flush();
+            write(List.of(history));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean hasPending() {
+        return pending.get() > 0;
+    }
+
+    public boolean hasPending(Long bookingId) {
+        return bookingId != null && pendingByBooking.containsKey(bookingId);
+    }
+
+    // Writes everything enqueued so far before returning
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<BookingHistoryRequest> batch = new ArrayList<>(flushSize);
+            while (queue.drainTo(batch, flushSize) > 0) {
+                write(batch);
+                batch = new ArrayList<>(flushSize);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "booking-history-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        logger.info("History writer stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop after the web server so requests still in flight can enqueue their history
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private boolean offer(BookingHistoryRequest history) {
+        try {
+            return queue.offer(history, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Wakes up every flush interval, or earlier when a full batch is waiting
+    private void drainLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            if (Thread.interrupted()) {
+                break;
+            }
+            flush();
+        }
+    }
+
+    private void write(List<BookingHistoryRequest> batch) {
+        try {
+            historyRepository.saveAll(batch);
+        } catch (RuntimeException e) {
+            logger.warn("History batch of {} failed, retrying row by row", batch.size());
+            for (BookingHistoryRequest history : batch) {
+                try {
+                    historyRepository.save(history);
+                } catch (RuntimeException rowFailure) {
+                    logger.error("Dropping history row for status {}", history.getStatus(), rowFailure);
+                }
+            }
+        } finally {
+            pending.addAndGet(-batch.size());
+            for (BookingHistoryRequest history : batch) {
+                Long bookingId = bookingId(history);
+                if (bookingId != null) {
+                    pendingByBooking.computeIfPresent(bookingId, (id, count) -> count == 1 ? null : count - 1);
+                }
+            }
+        }
+    }
+
+    private static Long bookingId(BookingHistoryRequest history) {
+        return history.getBooking() == null ? null : history.getBooking().getId();
+    }
+}
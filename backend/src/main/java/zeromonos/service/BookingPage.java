@@ -0,0 +1,8 @@
+package zeromonos.service;
+
+import zeromonos.data.BookingRequest;
+
+import java.util.List;
+
+// One keyset page; nextCursor is the id to pass as "after" for the following page, or null on the last page
+public record BookingPage(List<BookingRequest> items, Long nextCursor) {}
@@ -0,0 +1,117 @@
+package zeromonos.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps monthly partitions of the booking and history tables created ahead of time.
+ * The work is done by the ensure_month_partition database function from the V2 migration, which also moves
+ * rows that landed in the default partition into their new month and serializes concurrent instances.
+ * Months that archival emptied are dropped again by {@link #dropEmptyBefore(LocalDate)}.
+ */
+@Component
+public class BookingPartitionMaintenance {
+
+    static final List<String> PARTITIONED_TABLES = List.of("booking_request", "booking_history_request");
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingPartitionMaintenance.class);
+    // partition names as ensure_month_partition builds them: <table>_y<year>m<month>
+    private static final Pattern MONTH_SUFFIX = Pattern.compile("_y(\\d{4})m(\\d{2})$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final String lockTimeout;
+
+    public BookingPartitionMaintenance(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                       @Value("${bookings.partitions.months-ahead:12}") int monthsAhead,
+                                       @Value("${bookings.partitions.drop-lock-timeout:2s}") String lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        ensureUpcoming();
+    }
+
+    // Current month and the next months-ahead months, for every partitioned table
+    @Scheduled(fixedDelayString = "${bookings.partitions.check-interval-ms:86400000}",
+        initialDelayString = "${bookings.partitions.check-interval-ms:86400000}")
+    public void ensureUpcoming() {
+        YearMonth current = YearMonth.now();
+        for (String table : PARTITIONED_TABLES) {
+            for (int offset = 0; offset <= monthsAhead; offset++) {
+                ensureMonth(table, current.plusMonths(offset));
+            }
+        }
+    }
+
+    // True when the partition had to be created
+    public boolean ensureMonth(String table, YearMonth month) {
+        Boolean created = jdbcTemplate.queryForObject("select ensure_month_partition(?, ?)", Boolean.class,
+            table, month.atDay(1));
+        if (Boolean.TRUE.equals(created)) {
+            logger.info("Created partition of {} for {}", table, month);
+            return true;
+        }
+        return false;
+    }
+
+    // Drops the partitions of months that ended before the cutoff and hold no rows; returns how many were dropped.
+    // Dropping needs an exclusive lock on the parent table, so it gives up after drop-lock-timeout instead of
+    // queueing every booking query behind a long-running read, and tries again on the next run.
+    public int dropEmptyBefore(LocalDate cutoff) {
+        int dropped = 0;
+        for (String table : PARTITIONED_TABLES) {
+            List<String> partitions = jdbcTemplate.queryForList("select c.relname from pg_inherits i "
+                + "join pg_class c on c.oid = i.inhrelid where i.inhparent = ?::regclass", String.class, table);
+            for (String partition : partitions) {
+                Matcher matcher = MONTH_SUFFIX.matcher(partition);
+                if (!matcher.find()) {
+                    continue;
+                }
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                    continue;
+                }
+                try {
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> dropIfEmpty(table, partition)))) {
+                        logger.info("Dropped empty partition {}", partition);
+                        dropped++;
+                    }
+                } catch (DataAccessException e) {
+                    logger.warn("Could not drop partition {}, will retry on the next run: {}", partition, e.getMessage());
+                }
+            }
+        }
+        return dropped;
+    }
+
+    // Locks before checking, so no row can arrive between the emptiness check and the drop
+    private boolean dropIfEmpty(String table, String partition) {
+        jdbcTemplate.execute("set local lock_timeout = '" + lockTimeout + "'");
+        jdbcTemplate.execute("lock table only " + table + " in access exclusive mode");
+        jdbcTemplate.execute("lock table " + partition + " in access exclusive mode");
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("select exists (select 1 from " + partition + ")", Boolean.class))) {
+            return false;
+        }
+        jdbcTemplate.execute("drop table " + partition);
+        return true;
+    }
+}
@@ -1,57 +1,307 @@
 package zeromonos.service;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import zeromonos.data.BookingHistoryRepository;
 import zeromonos.data.BookingHistoryRequest;
 import zeromonos.data.BookingRepository;
 import zeromonos.data.BookingRequest;
+import zeromonos.data.BookingSpecifications;
+import zeromonos.data.HistorySummary;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
 
 @Service
+@Timed("bookings.service")
 public class BookingService {
 
+    private static final String LIMIT_REACHED = "Booking limit reached for this municipality";
+    static final String ARCHIVED = "Booking is archived and can no longer change";
+    static final String CAPACITY_REJECTIONS = "bookings.capacity.rejections";
+
     private BookingRepository repository;
     private BookingHistoryRepository historyRepository;
+    private BookingCapacityLedger capacityLedger;
+    private BookingTokenCache tokenCache;
+    private BookingHistoryWriter historyWriter;
+    private BookingArchive archive;
+    private BookingStatsRollup statsRollup;
+    private ApplicationEventPublisher eventPublisher;
+    private MeterRegistry meterRegistry;
 
-    public BookingService(BookingRepository repository, BookingHistoryRepository historyRepository) {
+    public BookingService(BookingRepository repository, BookingHistoryRepository historyRepository,
+                          BookingCapacityLedger capacityLedger, BookingTokenCache tokenCache,
+                          BookingHistoryWriter historyWriter, BookingArchive archive, BookingStatsRollup statsRollup,
+                          ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
         this.repository = repository;
         this.historyRepository = historyRepository;
+        this.capacityLedger = capacityLedger;
+        this.tokenCache = tokenCache;
+        this.historyWriter = historyWriter;
+        this.archive = archive;
+        this.statsRollup = statsRollup;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
     }
 
+    // The ledger rejects full days without touching the database; admitted requests are then
+    // re-checked under an advisory lock on (municipality, day), so only bookings for the same
+    // municipality and day are serialized, across every application instance. The slot taken in
+    // the ledger goes back whenever the transaction rolls back, including at or after commit.
+    @Transactional
     public BookingRequest createBooking(String description, String municipality, LocalDateTime date) {
-        long count = repository.findByMunicipality(municipality).stream()
-        .filter(b -> b.getDate().toLocalDate().equals(date.toLocalDate()))
-        .count();
-        if (count >= 5) {
-            throw new IllegalStateException("Booking limit reached for this municipality");
+        LocalDate day = date.toLocalDate();
+        if (!capacityLedger.tryAcquire(municipality, day)) {
+            throw limitReached(municipality);
+        }
+        AfterCommit.onRollback(() -> capacityLedger.release(municipality, day));
+        repository.lockDay(municipality, (int) day.toEpochDay());
+        if (repository.countActiveOn(municipality, day) >= BookingCapacityLedger.DAILY_LIMIT) {
+            throw limitReached(municipality);
         }
-        String token = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        BookingRequest booking = new BookingRequest(description, municipality, date, token);
-        return repository.save(booking);
+        BookingRequest booking = new BookingRequest(description, municipality, date, newToken());
+        BookingRequest saved = repository.saveAndFlush(booking);
+        statsRollup.added(List.of(saved));
+        AfterCommit.run(() -> tokenCache.put(saved));
+        return saved;
+    }
+
+    // Applies the daily limit once per (municipality, day) group and inserts every admitted booking
+    // in JDBC batches. Groups are locked in a fixed order so concurrent batches cannot deadlock.
+    @Transactional
+    public List<BookingBatchResult> createBookings(List<BookingDraft> drafts) {
+        BookingBatchResult[] results = new BookingBatchResult[drafts.size()];
+        Map<String, Map<LocalDate, List<Integer>>> groups = new TreeMap<>();
+        for (int i = 0; i < drafts.size(); i++) {
+            BookingDraft draft = drafts.get(i);
+            if (draft == null || !draft.isComplete()) {
+                results[i] = BookingBatchResult.invalid(i);
+                continue;
+            }
+            groups.computeIfAbsent(draft.municipality(), m -> new TreeMap<>())
+                .computeIfAbsent(draft.date().toLocalDate(), d -> new ArrayList<>())
+                .add(i);
+        }
+
+        List<BookingRequest> admitted = new ArrayList<>();
+        List<Integer> admittedIndexes = new ArrayList<>();
+        groups.forEach((municipality, days) -> days.forEach((day, indexes) -> {
+            repository.lockDay(municipality, (int) day.toEpochDay());
+            long remaining = BookingCapacityLedger.DAILY_LIMIT - repository.countActiveOn(municipality, day);
+            for (int index : indexes) {
+                if (remaining-- > 0) {
+                    BookingDraft draft = drafts.get(index);
+                    admitted.add(new BookingRequest(draft.description(), municipality, draft.date(), newToken()));
+                    admittedIndexes.add(index);
+                } else {
+                    results[index] = BookingBatchResult.rejected(index);
+                    countRejection(municipality);
+                }
+            }
+        }));
+
+        repository.saveAll(admitted);
+        repository.flush();
+        statsRollup.added(admitted);
+        for (int i = 0; i < admitted.size(); i++) {
+            results[admittedIndexes.get(i)] = BookingBatchResult.created(admittedIndexes.get(i), admitted.get(i).getToken());
+        }
+        AfterCommit.run(() -> admitted.forEach(
+            booking -> capacityLedger.add(booking.getMunicipality(), booking.getDate().toLocalDate(), 1)));
+        return Arrays.asList(results);
+    }
+    private DailyLimitReachedException limitReached(String municipality) {
+        countRejection(municipality);
+        return new DailyLimitReachedException(LIMIT_REACHED);
+    }
+
+    private void countRejection(String municipality) {
+        meterRegistry.counter(CAPACITY_REJECTIONS, "municipality", municipality).increment();
+    }
+
+    static String newToken() {
+        return UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
+
+    // Falls back to the archive for bookings BookingArchiver has moved; those come back read-only
     public Optional<BookingRequest> getBookingByToken(String token) {
-        return repository.findByToken(token);
+        return tokenCache.get(token, this::findLiveOrArchived);
+    }
+
+    // Entity tags for conditional GETs. They come from the token cache or from version-only queries,
+    // so a matching If-None-Match is answered without loading or serializing the booking.
+    public Optional<String> getBookingTag(String token) {
+        return findStamp(token).map(Stamp::tag);
+    }
+
+    public Optional<String> getHistoryTag(String token) {
+        Optional<Stamp> stamp = findStamp(token);
+        if (stamp.isEmpty()) {
+            return Optional.empty();
+        }
+        if (historyWriter.hasPending(stamp.get().id())) {
+            historyWriter.flush();
+        }
+        HistorySummary summary = stamp.get().archived()
+            ? archive.summarizeHistory(stamp.get().id())
+            : historyRepository.summarizeByBooking(stamp.get().id());
+        return Optional.of(stamp.get().tag() + "-" + summary.getTotal() + "-" + summary.getLastId());
+    }
+
+    public static String tagOf(BookingRequest booking) {
+        return new Stamp(booking.getId(), booking.getVersion(), booking.isArchived()).tag();
+    }
+
+    // Same tag as getHistoryTag, computed from rows that are already loaded
+    public static String historyTagOf(BookingRequest booking, List<BookingHistoryRequest> history) {
+        Long lastId = null;
+        for (BookingHistoryRequest row : history) {
+            if (row.getId() != null && (lastId == null || row.getId() > lastId)) {
+                lastId = row.getId();
+            }
+        }
+        return tagOf(booking) + "-" + history.size() + "-" + lastId;
     }
     public List<BookingRequest> getAllBookings() {
         return repository.findAll();
     }
+    // Keyset pagination ordered by id: one extra row is fetched to know whether another page exists
+    public BookingPage findBookings(String municipality, String status, LocalDate from, LocalDate to, Long after, int limit) {
+        List<BookingRequest> rows = repository.findBy(
+            BookingSpecifications.matching(municipality, status, from, to, after),
+            query -> query.sortBy(Sort.by("id")).limit(limit + 1).all());
+        if (rows.size() <= limit) {
+            return new BookingPage(rows, null);
+        }
+        List<BookingRequest> items = rows.subList(0, limit);
+        return new BookingPage(items, items.get(limit - 1).getId());
+    }
     public List<BookingRequest> getBookingsByMunicipality(String municipality) {
         return repository.findByMunicipality(municipality);
     }
+    // Served from the capacity ledger without querying; the ledger of this instance can lag other instances
+    // by one reconcile interval, so a day shown as free may still be rejected by createBooking
+    public List<DayAvailability> getAvailability(String municipality, LocalDate from, LocalDate to) {
+        List<DayAvailability> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days.add(new DayAvailability(day, capacityLedger.remaining(municipality, day)));
+        }
+        return days;
+    }
+    public List<BookingDailyStat> getDailyStats(String municipality, String status, LocalDate from, LocalDate to) {
+        return statsRollup.find(municipality, status, from, to);
+    }
+    // Transactional so the stats rollup moves together with the status it counts
+    @Transactional
     public BookingRequest save(BookingRequest booking) {
-        addStatusHistory(booking, booking.getStatus());
-        return repository.save(booking);
+        if (booking.isArchived()) {
+            throw new OptimisticLockingFailureException(ARCHIVED);
+        }
+        String previousStatus = booking.getPersistedStatus();
+        BookingRequest saved;
+        try {
+            if (isReactivation(previousStatus, booking.getStatus())) {
+                checkDayForReactivation(booking);
+            }
+            saved = repository.save(booking);
+            statsRollup.moved(booking, previousStatus);
+        } catch (RuntimeException e) {
+            tokenCache.invalidate(booking.getToken());
+            throw e;
+        }
+        AfterCommit.run(() -> {
+            if (saved != booking) {
+                // a detached booking was merged; keep it usable for the caller's next save
+                booking.setVersion(saved.getVersion());
+                booking.rememberPersistedStatus();
+            }
+            addStatusHistory(booking, booking.getStatus());
+            tokenCache.put(saved);
+            if (booking.getDate() != null) {
+                capacityLedger.onStatusChange(booking.getMunicipality(), booking.getDate().toLocalDate(), previousStatus, booking.getStatus());
+            }
+            if (!Objects.equals(previousStatus, booking.getStatus())) {
+                eventPublisher.publishEvent(new BookingStatusEvent(booking.getToken(), booking.getMunicipality(),
+                    previousStatus, booking.getStatus(), saved.getVersion(), LocalDateTime.now()));
+            }
+        }, () -> tokenCache.invalidate(booking.getToken()));
+        return saved;
+    }
+    private static boolean isReactivation(String previousStatus, String newStatus) {
+        return BookingCapacityLedger.STATUS_CANCELLED.equals(previousStatus)
+            && !BookingCapacityLedger.STATUS_CANCELLED.equals(newStatus);
+    }
+
+    // A cancelled booking taking a slot again goes through the same locked check as a new booking;
+    // it still counts as cancelled here, so the day must have a free slot for it
+    private void checkDayForReactivation(BookingRequest booking) {
+        LocalDate day = booking.getDate().toLocalDate();
+        repository.lockDay(booking.getMunicipality(), (int) day.toEpochDay());
+        if (repository.countActiveOn(booking.getMunicipality(), day) >= BookingCapacityLedger.DAILY_LIMIT) {
+            throw limitReached(booking.getMunicipality());
+        }
     }
+
     public void addStatusHistory(BookingRequest booking, String status) {
         BookingHistoryRequest history = new BookingHistoryRequest(booking, status, LocalDateTime.now());
-        historyRepository.save(history);
+        historyWriter.enqueue(history);
     }
     public List<BookingHistoryRequest> getStatusHistory(BookingRequest booking) {
+        // history is written behind; make sure rows this booking has queued so far are visible to this read
+        if (booking.isArchived()) {
+            return archive.history(booking);
+        }
+        if (historyWriter.hasPending(booking.getId())) {
+            historyWriter.flush();
+        }
         return historyRepository.findByBooking(booking);
     }
-}
\ No newline at end of file
+    public Map<String, Long> getTokenCacheStats() {
+        CacheStats stats = tokenCache.stats();
+        return Map.of(
+            "hits", stats.hitCount(),
+            "misses", stats.missCount(),
+            "evictions", stats.evictionCount(),
+            "size", tokenCache.size());
+    }
+
+    private Optional<Stamp> findStamp(String token) {
+        Optional<BookingRequest> cached = tokenCache.getIfPresent(token);
+        if (cached.isPresent()) {
+            return cached.map(booking -> new Stamp(booking.getId(), booking.getVersion(), booking.isArchived()));
+        }
+        Optional<Stamp> live = repository.findVersionByToken(token)
+            .map(version -> new Stamp(version.getId(), version.getVersion(), false));
+        if (live.isPresent()) {
+            return live;
+        }
+        return archive.findVersionByToken(token).map(version -> new Stamp(version.getId(), version.getVersion(), true));
+    }
+
+    private Optional<BookingRequest> findLiveOrArchived(String token) {
+        Optional<BookingRequest> live = repository.findByToken(token);
+        return live.isPresent() ? live : archive.findByToken(token);
+    }
+
+    private record Stamp(Long id, Long version, boolean archived) {
+        String tag() {
+            return id + "-" + version;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package zeromonos.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import zeromonos.data.BookingRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Booking counts per day, municipality and status in the booking_daily_stats table (V4 migration).
+ * BookingService applies a delta in the same transaction as every create and status change, so the
+ * rollup never runs ahead of or behind the bookings, and statistics read one row per bucket.
+ * Deltas are written in (day, municipality, status) order: two transactions moving bookings between
+ * the same buckets lock the rows in the same order and cannot deadlock.
+ */
+@Component
+public class BookingStatsRollup {
+
+    private static final String UPSERT = """
+        insert into booking_daily_stats (municipality, day, status, total) values (?, ?, ?, ?)
+        on conflict (day, municipality, status) do update set total = booking_daily_stats.total + excluded.total
+        """;
+
+    private static final String REBUILD = """
+        insert into booking_daily_stats (municipality, day, status, total)
+        select municipality, cast(date as date), status, count(*)
+        from (
+            select municipality, date, status from booking_request
+            union all
+            select municipality, date, status from booking_archive
+        ) bookings
+        where municipality is not null and status is not null
+        group by municipality, cast(date as date), status
+        """;
+
+    private static final Comparator<Bucket> BUCKET_ORDER = Comparator.comparing(Bucket::day)
+        .thenComparing(Bucket::municipality).thenComparing(Bucket::status);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingStatsRollup(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // New bookings, counted under their current status
+    public void added(List<BookingRequest> bookings) {
+        Map<Bucket, Long> deltas = new TreeMap<>(BUCKET_ORDER);
+        for (BookingRequest booking : bookings) {
+            if (isCountable(booking, booking.getStatus())) {
+                deltas.merge(bucketOf(booking, booking.getStatus()), 1L, Long::sum);
+            }
+        }
+        apply(deltas);
+    }
+
+    // One booking leaving its previous status for its current one; a null previous status is a new booking
+    public void moved(BookingRequest booking, String previousStatus) {
+        if (Objects.equals(previousStatus, booking.getStatus())) {
+            return;
+        }
+        Map<Bucket, Long> deltas = new TreeMap<>(BUCKET_ORDER);
+        if (isCountable(booking, previousStatus)) {
+            deltas.put(bucketOf(booking, previousStatus), -1L);
+        }
+        if (isCountable(booking, booking.getStatus())) {
+            deltas.put(bucketOf(booking, booking.getStatus()), 1L);
+        }
+        apply(deltas);
+    }
+
+    // Buckets with at least one booking, each filter optional; from and to are inclusive days
+    public List<BookingDailyStat> find(String municipality, String status, LocalDate from, LocalDate to) {
+        StringBuilder sql = new StringBuilder("select day, municipality, status, total from booking_daily_stats where total > 0");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" and day >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(" and day <= ?");
+            args.add(to);
+        }
+        if (municipality != null) {
+            sql.append(" and municipality = ?");
+            args.add(municipality);
+        }
+        if (status != null) {
+            sql.append(" and status = ?");
+            args.add(status);
+        }
+        sql.append(" order by day, municipality, status");
+        return jdbcTemplate.query(sql.toString(), (row, i) -> new BookingDailyStat(row.getObject("day", LocalDate.class),
+            row.getString("municipality"), row.getString("status"), row.getLong("total")), args.toArray());
+    }
+
+    // Recounts every bucket from the bookings, for data loaded without going through BookingService
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.update("delete from booking_daily_stats");
+        jdbcTemplate.update(REBUILD);
+    }
+
+    private void apply(Map<Bucket, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((bucket, delta) -> rows.add(new Object[] {bucket.municipality(), bucket.day(), bucket.status(), delta}));
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+    }
+
+    private static boolean isCountable(BookingRequest booking, String status) {
+        return status != null && booking.getMunicipality() != null && booking.getDate() != null;
+    }
+
+    private static Bucket bucketOf(BookingRequest booking, String status) {
+        return new Bucket(booking.getDate().toLocalDate(), booking.getMunicipality(), status);
+    }
+
+    private record Bucket(LocalDate day, String municipality, String status) {
+    }
+}
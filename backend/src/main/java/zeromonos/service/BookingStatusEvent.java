@@ -0,0 +1,8 @@
+package zeromonos.service;
+
+import java.time.LocalDateTime;
+
+// Published after a status change is committed
+public record BookingStatusEvent(String token, String municipality, String previousStatus, String status,
+                                 Long version, LocalDateTime changedAt) {
+}
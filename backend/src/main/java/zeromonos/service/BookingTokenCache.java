@@ -0,0 +1,77 @@
+package zeromonos.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import zeromonos.data.BookingRequest;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded token to booking cache in front of BookingRepository.findByToken.
+ * Entries are detached snapshots and every hit returns a fresh copy, so requests never share an instance.
+ * Unknown tokens are not cached, so guessing tokens cannot fill the cache.
+ */
+@Component
+public class BookingTokenCache implements MeterBinder {
+
+    private final Cache<String, BookingRequest> cache;
+
+    public BookingTokenCache(@Value("${bookings.token-cache.max-size:10000}") long maxSize,
+                             @Value("${bookings.token-cache.ttl:PT5M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    public Optional<BookingRequest> get(String token, Function<String, Optional<BookingRequest>> loader) {
+        BookingRequest cached = cache.getIfPresent(token);
+        if (cached != null) {
+            return Optional.of(cached.snapshot());
+        }
+        Optional<BookingRequest> loaded = loader.apply(token);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    // Cached copy only, never goes to the database
+    public Optional<BookingRequest> getIfPresent(String token) {
+        BookingRequest cached = cache.getIfPresent(token);
+        return cached == null ? Optional.empty() : Optional.of(cached.snapshot());
+    }
+
+    public void put(BookingRequest booking) {
+        if (booking != null && booking.getToken() != null) {
+            cache.put(booking.getToken(), booking.snapshot());
+        }
+    }
+
+    public void invalidate(String token) {
+        if (token != null) {
+            cache.invalidate(token);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "booking-tokens");
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,10 @@
+package zeromonos.service;
+
+// A booking would take its municipality past the daily limit, either as a new booking or as a cancelled
+// booking moved back to an active status. Callers answer it with 429 rather than as a conflict.
+public class DailyLimitReachedException extends RuntimeException {
+
+    public DailyLimitReachedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package zeromonos.service;
+
+import java.time.LocalDate;
+
+// Bookings still accepted for one municipality on one day
+public record DayAvailability(LocalDate day, int remaining) {
+}
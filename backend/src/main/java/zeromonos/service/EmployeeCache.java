@@ -0,0 +1,50 @@
+package zeromonos.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import zeromonos.data.EmployeeRepository;
+import zeromonos.data.EmployeeRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Handle on the second-level cache regions that hold the employee directory.
+ * Employee rows are cached by id and findByMunicipality results in their own query region.
+ */
+@Component
+public class EmployeeCache {
+
+    private final SessionFactory sessionFactory;
+
+    public EmployeeCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    // Hibernate already invalidates cached queries when the table changes; evicting the region as well
+    // drops the stale municipality lists straight away instead of leaving them for eviction
+    public void evictMunicipalityQueries() {
+        sessionFactory.getCache().evictQueryRegion(EmployeeRepository.MUNICIPALITY_QUERY_REGION);
+    }
+
+    public Map<String, Long> stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        put(stats, "entity", statistics.getDomainDataRegionStatistics(EmployeeRequest.CACHE_REGION));
+        put(stats, "query", statistics.getQueryRegionStatistics(EmployeeRepository.MUNICIPALITY_QUERY_REGION));
+        return stats;
+    }
+
+    private static void put(Map<String, Long> stats, String prefix, CacheRegionStatistics region) {
+        long hits = region == null ? 0 : region.getHitCount();
+        long misses = region == null ? 0 : region.getMissCount();
+        stats.put(prefix + "Hits", hits);
+        stats.put(prefix + "Misses", misses);
+        stats.put(prefix + "Puts", region == null ? 0 : region.getPutCount());
+        stats.put(prefix + "HitRatioPercent", hits + misses == 0 ? 0 : hits * 100 / (hits + misses));
+    }
+}
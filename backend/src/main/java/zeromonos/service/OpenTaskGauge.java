@@ -0,0 +1,48 @@
+package zeromonos.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import zeromonos.data.MunicipalityTaskCount;
+import zeromonos.data.WorkTaskRepository;
+
+import java.util.List;
+
+/**
+ * Publishes the number of open (not completed) tasks per municipality as the tasks.open gauge.
+ * Values come from one grouped query per refresh rather than from every scrape, and
+ * municipalities whose tasks are all completed drop out of the gauge.
+ */
+@Component
+public class OpenTaskGauge {
+
+    static final String METRIC = "tasks.open";
+
+    private final WorkTaskRepository workTaskRepository;
+    private final MultiGauge gauge;
+
+    public OpenTaskGauge(WorkTaskRepository workTaskRepository, MeterRegistry meterRegistry) {
+        this.workTaskRepository = workTaskRepository;
+        this.gauge = MultiGauge.builder(METRIC)
+            .description("Open tasks per municipality")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.metrics.refresh-interval-ms:30000}",
+        initialDelayString = "${tasks.metrics.refresh-interval-ms:30000}")
+    public void refresh() {
+        List<MunicipalityTaskCount> counts = workTaskRepository.countOpenByMunicipality();
+        gauge.register(counts.stream()
+            .map(row -> MultiGauge.Row.of(Tags.of("municipality", row.getMunicipality()), row.getTotal()))
+            .toList(), true);
+    }
+}
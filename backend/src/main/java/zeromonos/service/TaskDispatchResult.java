@@ -0,0 +1,4 @@
+package zeromonos.service;
+
+// Outcome of one dispatch run; unassigned bookings had no employee in their municipality or failed to save
+public record TaskDispatchResult(int dispatched, int unassigned) {}
@@ -0,0 +1,105 @@
+package zeromonos.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import zeromonos.data.BookingRepository;
+import zeromonos.data.BookingRequest;
+import zeromonos.data.EmployeeRepository;
+import zeromonos.data.EmployeeRequest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns received bookings to the employee of the same municipality with the fewest open tasks.
+ * Candidates are read once per municipality and run, and workloads come from the in-memory {@link TaskLoadIndex},
+ * so dispatching many bookings costs one candidate query per municipality plus the writes.
+ * Each booking is assigned in its own transaction through {@link WorkTaskService#assignTask(BookingRequest, EmployeeRequest)}.
+ */
+@Service
+public class TaskDispatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskDispatchService.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final EmployeeRepository employeeRepository;
+    private final WorkTaskService workTaskService;
+    private final TaskLoadIndex loadIndex;
+    private final boolean autoEnabled;
+    private final int batchSize;
+
+    public TaskDispatchService(BookingRepository bookingRepository, EmployeeRepository employeeRepository,
+                               WorkTaskService workTaskService, TaskLoadIndex loadIndex,
+                               @Value("${tasks.dispatch.auto-enabled:false}") boolean autoEnabled,
+                               @Value("${tasks.dispatch.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.employeeRepository = employeeRepository;
+        this.workTaskService = workTaskService;
+        this.loadIndex = loadIndex;
+        this.autoEnabled = autoEnabled;
+        this.batchSize = batchSize;
+    }
+
+    // Looks at up to maxBookings undispatched bookings, oldest first
+    public TaskDispatchResult dispatchPending(int maxBookings) {
+        Map<String, List<EmployeeRequest>> candidates = new HashMap<>();
+        int dispatched = 0;
+        int unassigned = 0;
+        long after = 0;
+        while (dispatched + unassigned < maxBookings) {
+            int pageSize = Math.min(PAGE_SIZE, maxBookings - dispatched - unassigned);
+            List<BookingRequest> bookings = bookingRepository.findUndispatched(after, Limit.of(pageSize));
+            for (BookingRequest booking : bookings) {
+                List<EmployeeRequest> employees =
+                    candidates.computeIfAbsent(booking.getMunicipality(), employeeRepository::findByMunicipality);
+                if (assign(booking, employees)) {
+                    dispatched++;
+                } else {
+                    unassigned++;
+                }
+                after = booking.getId();
+            }
+            if (bookings.size() < pageSize) {
+                break;
+            }
+        }
+        return new TaskDispatchResult(dispatched, unassigned);
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.dispatch.interval-ms:10000}",
+        initialDelayString = "${tasks.dispatch.interval-ms:10000}")
+    public void autoDispatch() {
+        if (!autoEnabled) {
+            return;
+        }
+        TaskDispatchResult result = dispatchPending(batchSize);
+        if (result.dispatched() > 0 || result.unassigned() > 0) {
+            logger.info("Auto dispatch assigned {} bookings, {} left unassigned", result.dispatched(), result.unassigned());
+        }
+    }
+
+    private boolean assign(BookingRequest booking, List<EmployeeRequest> employees) {
+        EmployeeRequest employee = loadIndex.leastLoaded(employees);
+        if (employee == null) {
+            return false;
+        }
+        try {
+            workTaskService.assignTask(booking, employee);
+            return true;
+        } catch (DailyLimitReachedException e) {
+            logger.info("Booking {} was cancelled and its day is full, skipping", booking.getId());
+        } catch (IllegalStateException e) {
+            logger.info("Booking {} was assigned or changed by someone else, skipping", booking.getId());
+        } catch (RuntimeException e) {
+            logger.warn("Could not dispatch booking {}", booking.getId(), e);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+package zeromonos.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import zeromonos.data.EmployeeRequest;
+import zeromonos.data.EmployeeTaskCount;
+import zeromonos.data.WorkTaskRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory count of open (not completed) tasks per employee, used to pick the least-loaded employee
+ * without querying workloads for every booking. Counters follow task assign and complete events,
+ * are warmed from one aggregate query and periodically reconciled against the database.
+ */
+@Component
+public class TaskLoadIndex {
+
+    static final String STATUS_COMPLETED = "COMPLETED";
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskLoadIndex.class);
+
+    private final WorkTaskRepository workTaskRepository;
+    private final ConcurrentHashMap<Long, AtomicInteger> openTasks = new ConcurrentHashMap<>();
+
+    public TaskLoadIndex(WorkTaskRepository workTaskRepository) {
+        this.workTaskRepository = workTaskRepository;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        reconcile();
+        logger.info("Task load index warmed with {} employees", openTasks.size());
+    }
+
+    // The candidate with the fewest open tasks, lowest id on ties; null when there are no candidates
+    public EmployeeRequest leastLoaded(List<EmployeeRequest> candidates) {
+        EmployeeRequest best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (EmployeeRequest candidate : candidates) {
+            int load = count(candidate.getId());
+            if (load < bestLoad || (load == bestLoad && candidate.getId() < best.getId())) {
+                best = candidate;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    public void onAssigned(Long employeeId) {
+        if (employeeId != null) {
+            counter(employeeId).incrementAndGet();
+        }
+    }
+
+    public void onClosed(Long employeeId) {
+        AtomicInteger counter = employeeId == null ? null : openTasks.get(employeeId);
+        if (counter != null) {
+            counter.getAndUpdate(value -> value > 0 ? value - 1 : 0);
+        }
+    }
+
+    public void onStatusChange(Long employeeId, String previousStatus, String newStatus) {
+        boolean wasOpen = !STATUS_COMPLETED.equals(previousStatus);
+        boolean isOpen = !STATUS_COMPLETED.equals(newStatus);
+        if (wasOpen && !isOpen) {
+            onClosed(employeeId);
+        } else if (!wasOpen && isOpen) {
+            onAssigned(employeeId);
+        }
+    }
+
+    public int count(Long employeeId) {
+        AtomicInteger counter = openTasks.get(employeeId);
+        return counter == null ? 0 : counter.get();
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.load.reconcile-interval-ms:300000}",
+        initialDelayString = "${tasks.load.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Set<Long> seen = new HashSet<>();
+        for (EmployeeTaskCount row : workTaskRepository.countOpenByEmployee()) {
+            seen.add(row.getEmployeeId());
+            counter(row.getEmployeeId()).set((int) row.getTotal());
+        }
+        openTasks.forEach((employeeId, counter) -> {
+            if (!seen.contains(employeeId)) {
+                counter.set(0);
+            }
+        });
+    }
+
+    private AtomicInteger counter(Long employeeId) {
+        return openTasks.computeIfAbsent(employeeId, id -> new AtomicInteger());
+    }
+}
@@ -0,0 +1,17 @@
+package zeromonos.service;
+
+import zeromonos.data.TaskSummary;
+
+import java.util.List;
+
+// One keyset page of tasks; nextCursor is the id to pass as "after" for the following page, or null on the last page
+public record WorkTaskPage(List<TaskSummary> items, Long nextCursor) {
+
+    static WorkTaskPage of(List<TaskSummary> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new WorkTaskPage(rows, null);
+        }
+        List<TaskSummary> items = rows.subList(0, limit);
+        return new WorkTaskPage(items, items.get(limit - 1).id());
+    }
+}
@@ -1,37 +1,82 @@
 package zeromonos.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import zeromonos.data.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed("tasks.service")
 public class WorkTaskService {
 
     private static final String EMPLOYEE_NOT_FOUND = "Employee not found";
     private static final String TASK_NOT_FOUND = "Task not found";
     private static final String BOOKING_NOT_FOUND = "Booking not found";
+    static final String TASK_CONFLICT = "Booking already has a task or was changed concurrently";
     private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_ASSIGNED = "ASSIGNED";
     
     private final WorkTaskRepository workTaskRepository;
     private final EmployeeRepository employeeRepository;
     private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final TaskLoadIndex loadIndex;
+    private final EmployeeCache employeeCache;
     
-    public WorkTaskService(WorkTaskRepository workTaskRepository, EmployeeRepository employeeRepository, BookingRepository bookingRepository) {
+    public WorkTaskService(WorkTaskRepository workTaskRepository, EmployeeRepository employeeRepository, BookingRepository bookingRepository,
+                           BookingService bookingService, TaskLoadIndex loadIndex, EmployeeCache employeeCache) {
         this.workTaskRepository = workTaskRepository;
         this.employeeRepository = employeeRepository;
         this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.loadIndex = loadIndex;
+        this.employeeCache = employeeCache;
+    }
+
+    @Transactional
+    public WorkTaskRequest assignTask(String bookingToken, Long employeeId) {
+        BookingRequest booking = bookingRepository.findByToken(bookingToken)
+            .orElseThrow(() -> new IllegalArgumentException(BOOKING_NOT_FOUND));
+        EmployeeRequest employee = employeeRepository.findById(employeeId)
+            .orElseThrow(() -> new IllegalArgumentException(EMPLOYEE_NOT_FOUND));
+        return assignTask(booking, employee);
     }
     
+    @Transactional
     public WorkTaskRequest assignTaskToEmployee(BookingRequest booking, Long employeeId) {
         EmployeeRequest employee = employeeRepository.findById(employeeId)
             .orElseThrow(() -> new IllegalArgumentException(EMPLOYEE_NOT_FOUND));
         
-        WorkTaskRequest task = new WorkTaskRequest(booking, employee);
-        return workTaskRepository.save(task);
+        return assignTask(booking, employee);
+    }
+
+    // Creates the task and marks the booking assigned in one transaction. A second task for the same booking
+    // hits the unique constraint and a concurrent change to the booking fails its version check; both are
+    // reported as IllegalStateException and roll everything back, without holding any lock. Assigning a
+    // cancelled booking on a full day fails with DailyLimitReachedException, as any reactivation does.
+    @Transactional
+    public WorkTaskRequest assignTask(BookingRequest booking, EmployeeRequest employee) {
+        WorkTaskRequest task;
+        try {
+            task = workTaskRepository.saveAndFlush(new WorkTaskRequest(booking, employee));
+            booking.setStatus(STATUS_ASSIGNED);
+            task.setBooking(bookingService.save(booking));
+            bookingRepository.flush();
+        } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+            throw new IllegalStateException(TASK_CONFLICT, e);
+        }
+        AfterCommit.run(() -> loadIndex.onAssigned(employee.getId()));
+        return task;
     }
     
+    @Transactional
     public WorkTaskRequest assignTaskByIds(Long bookingId, Long employeeId) {
         BookingRequest booking = bookingRepository.findById(bookingId)
             .orElseThrow(() -> new IllegalArgumentException(BOOKING_NOT_FOUND));
@@ -39,8 +84,7 @@ public class WorkTaskService {
         EmployeeRequest employee = employeeRepository.findById(employeeId)
             .orElseThrow(() -> new IllegalArgumentException(EMPLOYEE_NOT_FOUND));
         
-        WorkTaskRequest task = new WorkTaskRequest(booking, employee);
-        return workTaskRepository.save(task);
+        return assignTask(booking, employee);
     }
     
     public List<WorkTaskRequest> getTasksByEmployee(Long employeeId) {
@@ -52,35 +96,74 @@ public class WorkTaskService {
     public List<WorkTaskRequest> getAllTasks() {
         return workTaskRepository.findAll();
     }
+
+    // Reads one row past the limit to know whether another page follows
+    public WorkTaskPage findTasks(Long after, int limit) {
+        return WorkTaskPage.of(workTaskRepository.findPage(after == null ? 0 : after, Limit.of(limit + 1)), limit);
+    }
+
+    public WorkTaskPage findTasksByEmployee(Long employeeId, Long after, int limit) {
+        if (!employeeRepository.existsById(employeeId)) {
+            throw new IllegalArgumentException(EMPLOYEE_NOT_FOUND);
+        }
+        return WorkTaskPage.of(
+            workTaskRepository.findPageByEmployee(employeeId, after == null ? 0 : after, Limit.of(limit + 1)), limit);
+    }
     
     public Optional<WorkTaskRequest> getTaskById(Long taskId) {
         return workTaskRepository.findById(taskId);
     }
+
+    // Entity tag for conditional GETs, read with a version-only query; covers the task and its booking
+    public Optional<String> getTaskTag(Long taskId) {
+        return workTaskRepository.findVersionById(taskId)
+            .map(version -> taskId + "-" + version.getTaskVersion() + "-" + version.getBookingVersion());
+    }
+
+    public static String tagOf(WorkTaskRequest task) {
+        Long bookingVersion = task.getBooking() == null ? null : task.getBooking().getVersion();
+        return task.getId() + "-" + task.getVersion() + "-" + bookingVersion;
+    }
     
     public List<WorkTaskRequest> getTasksByStatus(String status) {
         return workTaskRepository.findByStatus(status);
     }
     
+    @Transactional
     public WorkTaskRequest updateTaskStatus(Long taskId, String status) {
         WorkTaskRequest task = workTaskRepository.findById(taskId)
             .orElseThrow(() -> new IllegalArgumentException(TASK_NOT_FOUND));
         
+        String previousStatus = task.getStatus();
         task.setStatus(status);
         if (STATUS_COMPLETED.equals(status)) {
             task.setCompletedAt(LocalDateTime.now());
         }
-        return workTaskRepository.save(task);
+        WorkTaskRequest saved = workTaskRepository.save(task);
+        AfterCommit.run(() -> loadIndex.onStatusChange(employeeId(task), previousStatus, status));
+        return saved;
     }
     
+    // Completes the task and its booking in one transaction, so neither is left completed without the other.
+    // A concurrent change to either fails its version check as OptimisticLockingFailureException.
+    @Transactional
     public WorkTaskRequest completeTask(Long taskId, String notes) {
         WorkTaskRequest task = workTaskRepository.findById(taskId)
             .orElseThrow(() -> new IllegalArgumentException(TASK_NOT_FOUND));
-        
+
+        String previousStatus = task.getStatus();
         task.setStatus(STATUS_COMPLETED);
         task.setCompletedAt(LocalDateTime.now());
         task.setNotes(notes);
-        
-        return workTaskRepository.save(task);
+
+        WorkTaskRequest saved = workTaskRepository.save(task);
+        if (saved.getBooking() != null) {
+            saved.getBooking().setStatus(STATUS_COMPLETED);
+            saved.setBooking(bookingService.save(saved.getBooking()));
+            workTaskRepository.flush();
+        }
+        AfterCommit.run(() -> loadIndex.onStatusChange(employeeId(task), previousStatus, STATUS_COMPLETED));
+        return saved;
     }
     
     public List<EmployeeRequest> getAllEmployees() {
@@ -96,13 +179,26 @@ public class WorkTaskService {
     }
     
     public EmployeeRequest createEmployee(String name, String email, String municipality, String role) {
-        EmployeeRequest employee = new EmployeeRequest(name, email, municipality, role);
-        return employeeRepository.save(employee);
+        EmployeeRequest employee = employeeRepository.save(new EmployeeRequest(name, email, municipality, role));
+        AfterCommit.run(employeeCache::evictMunicipalityQueries);
+        return employee;
+    }
+
+    public Map<String, Long> getEmployeeCacheStats() {
+        return employeeCache.stats();
     }
     
+    @Transactional
     public void deleteTask(Long taskId) {
         WorkTaskRequest task = workTaskRepository.findById(taskId)
             .orElseThrow(() -> new IllegalArgumentException(TASK_NOT_FOUND));
         workTaskRepository.delete(task);
+        if (!STATUS_COMPLETED.equals(task.getStatus())) {
+            AfterCommit.run(() -> loadIndex.onClosed(employeeId(task)));
+        }
+    }
+
+    private static Long employeeId(WorkTaskRequest task) {
+        return task.getAssignedEmployee() == null ? null : task.getAssignedEmployee().getId();
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+-- Brings a database to the schema the later migrations start from. Databases created by ddl-auto=update
+-- before migrations were introduced are baselined at version 0 (spring.flyway.baseline-on-migrate), so this
+-- runs on them too: every statement either creates what is missing or leaves what is already there alone.
+-- Those databases have identity ids, no version columns, no id sequences and no named unique constraint on
+-- the booking of a task.
+
+create table if not exists booking_request (
+    id bigint generated by default as identity,
+    date timestamp(6),
+    description varchar(255),
+    municipality varchar(255),
+    status varchar(255),
+    token varchar(255),
+    primary key (id)
+);
+
+create table if not exists booking_history_request (
+    id bigint generated by default as identity,
+    booking_id bigint,
+    status varchar(255),
+    timestamp timestamp(6),
+    primary key (id),
+    constraint fk_history_booking foreign key (booking_id) references booking_request
+);
+
+create table if not exists employee_request (
+    id bigint generated by default as identity,
+    email varchar(255),
+    municipality varchar(255),
+    name varchar(255),
+    role varchar(255),
+    primary key (id)
+);
+
+create table if not exists work_task_request (
+    id bigint generated by default as identity,
+    assigned_at timestamp(6),
+    booking_id bigint,
+    completed_at timestamp(6),
+    employee_id bigint,
+    notes varchar(255),
+    status varchar(255),
+    primary key (id),
+    constraint fk_task_booking foreign key (booking_id) references booking_request,
+    constraint fk_task_employee foreign key (employee_id) references employee_request
+);
+
+alter table booking_request add column if not exists version bigint default 0 not null;
+alter table work_task_request add column if not exists version bigint default 0 not null;
+
+-- bookings and their history take ids from sequences so Hibernate can allocate them 50 at a time;
+-- the sequences continue after the ids the identity columns already handed out
+alter table booking_request alter column id drop identity if exists;
+alter table booking_history_request alter column id drop identity if exists;
+create sequence if not exists booking_request_seq start with 1 increment by 50;
+create sequence if not exists booking_history_request_seq start with 1 increment by 50;
+select setval('booking_request_seq', (select max(id) from booking_request))
+where exists (select 1 from booking_request);
+select setval('booking_history_request_seq', (select max(id) from booking_history_request))
+where exists (select 1 from booking_history_request);
+
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conrelid = 'work_task_request'::regclass and conname = 'uk_task_booking') then
+        alter table work_task_request add constraint uk_task_booking unique (booking_id);
+    end if;
+end $$;
+
+create index if not exists idx_booking_municipality_date on booking_request (municipality, date);
+create index if not exists idx_booking_municipality_id on booking_request (municipality, id);
+create index if not exists idx_booking_status_id on booking_request (status, id);
+create index if not exists idx_booking_date on booking_request (date);
+create index if not exists idx_booking_token on booking_request (token);
+create index if not exists idx_history_booking_id on booking_history_request (booking_id, id);
+create index if not exists idx_task_employee_id on work_task_request (employee_id, id);
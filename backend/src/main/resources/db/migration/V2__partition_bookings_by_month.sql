@@ -0,0 +1,99 @@
+-- Range-partitions bookings by booking date and their status history by timestamp, one partition per month,
+-- so capacity checks and date-range listings only read the months they ask for. Rows outside every month
+-- that has a partition go to a default partition until ensure_month_partition creates their month.
+
+-- Creates the partition for the month containing the given day and moves any rows of that month out of the
+-- default partition. Returns false when the partition already exists. Safe to call from several instances.
+create or replace function ensure_month_partition(parent text, month date) returns boolean
+language plpgsql as $$
+declare
+    first_day date := date_trunc('month', month)::date;
+    next_first_day date := (date_trunc('month', month) + interval '1 month')::date;
+    partition_name text := format('%s_y%sm%s', parent, to_char(month, 'YYYY'), to_char(month, 'MM'));
+    default_name text := parent || '_default';
+    key_column text;
+begin
+    perform pg_advisory_xact_lock(hashtext('ensure_month_partition:' || parent));
+    if to_regclass(partition_name) is not null then
+        return false;
+    end if;
+    select a.attname into key_column
+    from pg_partitioned_table p
+    join pg_attribute a on a.attrelid = p.partrelid and a.attnum = p.partattrs[0]
+    where p.partrelid = parent::regclass;
+
+    execute format('create table %I (like %I including defaults)', partition_name, parent);
+    execute format('with moved as (delete from %I where %I >= %L and %I < %L returning *) insert into %I select * from moved',
+        default_name, key_column, first_day, key_column, next_first_day, partition_name);
+    execute format('alter table %I attach partition %I for values from (%L) to (%L)',
+        parent, partition_name, first_day, next_first_day);
+    return true;
+end $$;
+
+-- A foreign key can only reference a partitioned table through a key that includes the partition column,
+-- so tasks and history point at bookings by id without a database-level constraint from here on
+do $$
+declare
+    fk record;
+begin
+    for fk in select conrelid::regclass as owner, conname from pg_constraint
+              where contype = 'f' and confrelid in ('booking_request'::regclass, 'booking_history_request'::regclass)
+    loop
+        execute format('alter table %s drop constraint %I', fk.owner, fk.conname);
+    end loop;
+end $$;
+
+alter table booking_request rename to booking_request_unpartitioned;
+alter table booking_history_request rename to booking_history_request_unpartitioned;
+
+create table booking_request (
+    id bigint not null,
+    date timestamp(6) not null,
+    description varchar(255),
+    municipality varchar(255),
+    status varchar(255),
+    token varchar(255),
+    version bigint default 0 not null
+) partition by range (date);
+create table booking_request_default partition of booking_request default;
+
+create table booking_history_request (
+    id bigint not null,
+    booking_id bigint,
+    status varchar(255),
+    timestamp timestamp(6) not null
+) partition by range (timestamp);
+create table booking_history_request_default partition of booking_history_request default;
+
+-- every month that already has rows, plus the current month and the twelve after it
+select ensure_month_partition('booking_request', month)
+from (select date_trunc('month', date)::date as month from booking_request_unpartitioned
+      union
+      select generate_series(date_trunc('month', current_date), date_trunc('month', current_date) + interval '12 months',
+                             interval '1 month')::date) months
+order by month;
+select ensure_month_partition('booking_history_request', month)
+from (select date_trunc('month', timestamp)::date as month from booking_history_request_unpartitioned
+      union
+      select generate_series(date_trunc('month', current_date), date_trunc('month', current_date) + interval '12 months',
+                             interval '1 month')::date) months
+order by month;
+
+insert into booking_request (id, date, description, municipality, status, token, version)
+select id, date, description, municipality, status, token, version from booking_request_unpartitioned;
+insert into booking_history_request (id, booking_id, status, timestamp)
+select id, booking_id, status, timestamp from booking_history_request_unpartitioned;
+
+drop table booking_request_unpartitioned;
+drop table booking_history_request_unpartitioned;
+
+-- the primary key of a partitioned table has to contain the partition column; ids stay unique through their sequences
+alter table booking_request add primary key (id, date);
+alter table booking_history_request add primary key (id, timestamp);
+
+create index idx_booking_municipality_date on booking_request (municipality, date);
+create index idx_booking_municipality_id on booking_request (municipality, id);
+create index idx_booking_status_id on booking_request (status, id);
+create index idx_booking_date on booking_request (date);
+create index idx_booking_token on booking_request (token);
+create index idx_history_booking_id on booking_history_request (booking_id, id);
@@ -0,0 +1,38 @@
+-- Terminal bookings past their retention age are moved here by BookingArchiver, together with their status
+-- history and task, so the partitioned tables and their indexes only hold bookings that can still change.
+
+create table booking_archive (
+    id bigint not null,
+    date timestamp(6) not null,
+    description varchar(255),
+    municipality varchar(255),
+    status varchar(255),
+    token varchar(255),
+    version bigint not null,
+    archived_at timestamp(6) not null,
+    primary key (id)
+);
+create index idx_booking_archive_token on booking_archive (token);
+
+create table booking_history_archive (
+    id bigint not null,
+    booking_id bigint,
+    status varchar(255),
+    timestamp timestamp(6) not null,
+    archived_at timestamp(6) not null,
+    primary key (id)
+);
+create index idx_history_archive_booking_id on booking_history_archive (booking_id, id);
+
+create table work_task_archive (
+    id bigint not null,
+    booking_id bigint,
+    employee_id bigint,
+    status varchar(255),
+    assigned_at timestamp(6),
+    completed_at timestamp(6),
+    notes varchar(255),
+    version bigint not null,
+    archived_at timestamp(6) not null,
+    primary key (id)
+);
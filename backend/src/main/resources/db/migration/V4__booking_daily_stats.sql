@@ -0,0 +1,21 @@
+-- Number of bookings per municipality, day and current status. BookingService keeps it up to date in the
+-- same transaction as every create and status change, so statistics read one row per bucket instead of
+-- scanning bookings. Archived bookings keep their rows: archival moves a booking, it does not change it.
+
+create table booking_daily_stats (
+    municipality varchar(255) not null,
+    day date not null,
+    status varchar(255) not null,
+    total bigint not null,
+    primary key (day, municipality, status)
+);
+
+insert into booking_daily_stats (municipality, day, status, total)
+select municipality, cast(date as date), status, count(*)
+from (
+    select municipality, date, status from booking_request
+    union all
+    select municipality, date, status from booking_archive
+) bookings
+where municipality is not null and status is not null
+group by municipality, cast(date as date), status;
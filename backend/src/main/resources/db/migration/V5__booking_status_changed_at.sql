@@ -0,0 +1,5 @@
+-- When the status of a booking last changed. The archiver reads it instead of relying only on the history
+-- table, whose rows are written after commit and may not be there yet. Older rows stay null and fall back
+-- to their history.
+
+alter table booking_request add column status_changed_at timestamp(6);
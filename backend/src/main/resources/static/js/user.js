@@ -33,8 +33,38 @@ document.addEventListener("DOMContentLoaded", async () => {
   now.setDate(now.getDate() + 1);
   now.setMinutes(now.getMinutes() - now.getTimezoneOffset());
   dateInput.min = now.toISOString().slice(0,16);
+  select.addEventListener("change", checkAvailability);
+  dateInput.addEventListener("change", checkAvailability);
 });
 
+// Remaining bookings for the selected municipality and day, so full days are shown before submitting
+let remainingOnDay = null;
+
+async function checkAvailability() {
+  const municipality = document.getElementById("municipality").value;
+  const day = document.getElementById("date").value.slice(0, 10);
+  const hint = document.getElementById("availability");
+  remainingOnDay = null;
+  hint.textContent = "";
+  if (!municipality || !day) {
+    return;
+  }
+  try {
+    const res = await fetch(`http://localhost:8080/api/availability?municipality=${encodeURIComponent(municipality)}&from=${day}&to=${day}`);
+    if (!res.ok) {
+      return;
+    }
+    const days = await res.json();
+    if (days.length === 1) {
+      remainingOnDay = days[0].remaining;
+      hint.textContent = remainingOnDay > 0 ? `${remainingOnDay} slots left on this day` : "This day is fully booked";
+      hint.style.color = remainingOnDay > 0 ? "#065f46" : "#991b1b";
+    }
+  } catch (err) {
+    // availability is only a hint; the booking request is still checked by the server
+  }
+}
+
 document.getElementById("bookingForm").addEventListener("submit", async (e) => {
   e.preventDefault();
   const booking = {
@@ -44,6 +74,12 @@ document.getElementById("bookingForm").addEventListener("submit", async (e) => {
   };
 
   const resultDiv = document.getElementById("result");
+  if (remainingOnDay === 0) {
+    resultDiv.textContent = "❌ This day is fully booked for this municipality!";
+    resultDiv.style.background = "#fee2e2";
+    resultDiv.style.color = "#991b1b";
+    return;
+  }
   resultDiv.textContent = "Submitting...";
   resultDiv.style.background = "#dbeafe";
   resultDiv.style.color = "#1e40af";
@@ -71,6 +107,7 @@ document.getElementById("bookingForm").addEventListener("submit", async (e) => {
       </div>
     `;
     document.getElementById("bookingForm").reset();
+    checkAvailability();
   } catch (err) {
     resultDiv.textContent = "❌ Connection error!";
     resultDiv.style.background = "#fee2e2";
@@ -78,6 +115,25 @@ document.getElementById("bookingForm").addEventListener("submit", async (e) => {
   }
 });
 
+// Reloads the booking when its status changes instead of waiting for the user to search again
+let bookingEvents = null;
+function watchBooking(token, currentStatus) {
+  if (bookingEvents) {
+    bookingEvents.close();
+    bookingEvents = null;
+  }
+  if (currentStatus === 'CANCELLED' || currentStatus === 'COMPLETED') {
+    return;
+  }
+  bookingEvents = new EventSource(`http://localhost:8080/api/bookings/${token}/events`);
+  bookingEvents.addEventListener("status", (e) => {
+    const event = JSON.parse(e.data);
+    if (event.status !== currentStatus) {
+      document.getElementById("searchForm").dispatchEvent(new Event('submit'));
+    }
+  });
+}
+
 document.getElementById("searchForm").addEventListener("submit", async (e) => {
   e.preventDefault();
   const token = document.getElementById("token").value.trim();
@@ -91,6 +147,7 @@ document.getElementById("searchForm").addEventListener("submit", async (e) => {
       return;
     }
     const booking = await res.json();
+    watchBooking(token, booking.status);
     
     const statusColors = {
       'RECEIVED': '#3b82f6',
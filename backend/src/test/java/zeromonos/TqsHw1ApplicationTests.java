@@ -1,14 +1,26 @@
 package zeromonos;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 class TqsHw1ApplicationTests {
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
 	void contextLoads() {
 		// this is fine sonarqube
 	}
 
+    @Test
+    void testObjectMapperUsesBlackbird() {
+        assertThat(objectMapper.getRegisteredModuleIds()).anyMatch(id -> id.toString().contains("Blackbird"));
+    }
+
 }
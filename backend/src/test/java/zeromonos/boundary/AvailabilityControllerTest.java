@@ -0,0 +1,69 @@
+package zeromonos.boundary;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import zeromonos.service.BookingService;
+import zeromonos.service.DayAvailability;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AvailabilityController.class)
+class AvailabilityControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private BookingService bookingService;
+
+    @Test
+    void whenGetAvailability_thenReturnRemainingPerDay() throws Exception {
+        LocalDate from = LocalDate.now().plusDays(1);
+        when(bookingService.getAvailability("Aveiro", from, from.plusDays(1)))
+            .thenReturn(List.of(new DayAvailability(from, 0), new DayAvailability(from.plusDays(1), 4)));
+
+        mvc.perform(get("/api/availability").param("municipality", "Aveiro")
+                    .param("from", from.toString()).param("to", from.plusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].day", is(from.toString())))
+                .andExpect(jsonPath("$[0].remaining", is(0)))
+                .andExpect(jsonPath("$[1].remaining", is(4)));
+    }
+
+    @Test
+    void whenGetAvailabilityWithoutRange_thenTwoWeeksFromToday() throws Exception {
+        LocalDate today = LocalDate.now();
+        when(bookingService.getAvailability("Aveiro", today, today.plusDays(13))).thenReturn(List.of());
+
+        mvc.perform(get("/api/availability").param("municipality", "Aveiro").param("from", today.minusDays(7).toString()))
+                .andExpect(status().isOk());
+
+        verify(bookingService).getAvailability("Aveiro", today, today.plusDays(13));
+    }
+
+    @Test
+    void whenGetAvailabilityWithInvalidRange_thenBadRequest() throws Exception {
+        LocalDate today = LocalDate.now();
+        mvc.perform(get("/api/availability").param("municipality", "Aveiro")
+                    .param("from", today.plusDays(5).toString()).param("to", today.toString()))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/availability").param("municipality", "Aveiro")
+                    .param("from", today.toString()).param("to", today.plusDays(90).toString()))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/availability"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).getAvailability(any(), any(), any());
+    }
+}
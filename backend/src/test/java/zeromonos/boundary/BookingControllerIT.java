@@ -10,9 +10,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -38,6 +49,7 @@ class BookingControllerIT {
         jdbcTemplate.execute("DELETE FROM employee_request");
         jdbcTemplate.execute("DELETE FROM booking_history_request");
         jdbcTemplate.execute("DELETE FROM booking_request");
+        jdbcTemplate.execute("DELETE FROM booking_daily_stats");
     }
 
     @Test
@@ -71,6 +83,94 @@ class BookingControllerIT {
                 .body("token", equalTo(token));
     }
     
+    @Test
+    void testConditionalGetFollowsStatusChanges() {
+        String tomorrow = LocalDateTime.now().plusDays(1).format(FORMATTER);
+        String token =
+            RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body("{\"description\":\"Fridge\",\"municipality\":\"Aveiro\",\"date\":\"" + tomorrow + "\"}")
+            .when()
+                .post("/api/bookings")
+            .then()
+                .statusCode(201)
+                .extract()
+                .path("token");
+
+        String etag = RestAssured.get("/api/bookings/" + token).then().statusCode(200).extract().header("ETag");
+        assertThat(etag).isNotNull();
+        RestAssured.given().header("If-None-Match", etag)
+            .when().get("/api/bookings/" + token)
+            .then().statusCode(304);
+
+        String historyTag = RestAssured.get("/api/bookings/" + token + "/history").then().statusCode(200).extract().header("ETag");
+        RestAssured.given().header("If-None-Match", historyTag)
+            .when().get("/api/bookings/" + token + "/history")
+            .then().statusCode(304);
+
+        RestAssured.put("/api/bookings/" + token + "/cancel").then().statusCode(200);
+
+        RestAssured.given().header("If-None-Match", etag)
+            .when().get("/api/bookings/" + token)
+            .then().statusCode(200)
+                .body("status", equalTo("CANCELLED"))
+                .header("ETag", not(equalTo(etag)));
+        RestAssured.given().header("If-None-Match", historyTag)
+            .when().get("/api/bookings/" + token + "/history")
+            .then().statusCode(200)
+                .body("size()", equalTo(1));
+    }
+
+    @Test
+    void testStatusChangesArePushedToSubscribers() throws Exception {
+        String tomorrow = LocalDateTime.now().plusDays(1).format(FORMATTER);
+        String token =
+            RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body("{\"description\":\"Sofa\",\"municipality\":\"Aveiro\",\"date\":\"" + tomorrow + "\"}")
+            .when()
+                .post("/api/bookings")
+            .then()
+                .statusCode(201)
+                .extract()
+                .path("token");
+
+        HttpClient client = HttpClient.newHttpClient();
+        BlockingQueue<String> bookingLines = subscribe(client, "/api/bookings/" + token + "/events");
+        BlockingQueue<String> staffLines = subscribe(client, "/api/bookings/events?municipality=Aveiro");
+        BlockingQueue<String> otherStaffLines = subscribe(client, "/api/bookings/events?municipality=Porto");
+        assertThat(nextData(bookingLines)).contains("\"status\":\"RECEIVED\"");
+
+        RestAssured.put("/api/bookings/" + token + "/cancel").then().statusCode(200);
+
+        assertThat(nextData(bookingLines)).contains("\"status\":\"CANCELLED\"").contains("\"previousStatus\":\"RECEIVED\"");
+        assertThat(nextData(staffLines)).contains(token);
+        Thread.sleep(500);
+        assertThat(otherStaffLines).noneMatch(line -> line.startsWith("data:"));
+    }
+
+    private BlockingQueue<String> subscribe(HttpClient client, String path) throws Exception {
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .header("Accept", "text/event-stream")
+            .build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        Thread reader = new Thread(() -> response.body().filter(line -> !line.isEmpty()).forEach(lines::add));
+        reader.setDaemon(true);
+        reader.start();
+        return lines;
+    }
+
+    private static String nextData(BlockingQueue<String> lines) throws InterruptedException {
+        String line;
+        do {
+            line = lines.poll(5, TimeUnit.SECONDS);
+            assertThat(line).as("event within 5s").isNotNull();
+        } while (!line.startsWith("data:"));
+        return line;
+    }
+
     @Test
     void testGetAllBookings() {
         String tomorrow = LocalDateTime.now().plusDays(1).format(FORMATTER);
@@ -107,7 +207,7 @@ class BookingControllerIT {
         .when()
             .post("/api/bookings")
         .then()
-            .statusCode(500);
+            .statusCode(400);
     }
     
     @Test
@@ -131,8 +231,84 @@ class BookingControllerIT {
             .post("/api/bookings")
         .then()
             .statusCode(429);
+
+        String day = LocalDateTime.now().plusDays(2).toLocalDate().toString();
+        RestAssured.given()
+            .when()
+                .get("/api/availability?municipality=" + municipality + "&from=" + day + "&to=" + day)
+            .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].day", equalTo(day))
+                .body("[0].remaining", equalTo(0));
     }
     
+    @Test
+    void testReactivatingCancelledBookingOnFullDayIsRejected() {
+        String municipality = "Vila de Rei";
+        String date = LocalDateTime.now().plusDays(2).format(FORMATTER);
+        String body = "{\"description\":\"Booking\",\"municipality\":\"" + municipality + "\",\"date\":\"" + date + "\"}";
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tokens.add(RestAssured.given().contentType(ContentType.JSON).body(body)
+                .post("/api/bookings").then().statusCode(201).extract().path("token"));
+        }
+        RestAssured.given().put("/api/bookings/" + tokens.get(0) + "/cancel").then().statusCode(200);
+        RestAssured.given().contentType(ContentType.JSON).body(body).post("/api/bookings").then().statusCode(201);
+
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .body("{\"status\":\"RECEIVED\"}")
+        .when()
+            .put("/api/bookings/" + tokens.get(0) + "/status")
+        .then()
+            .statusCode(429);
+
+        RestAssured.given()
+            .get("/api/bookings/" + tokens.get(0))
+            .then()
+            .statusCode(200)
+            .body("status", equalTo("CANCELLED"));
+        String day = LocalDateTime.now().plusDays(2).toLocalDate().toString();
+        RestAssured.given()
+            .get("/api/availability?municipality=" + municipality + "&from=" + day + "&to=" + day)
+            .then()
+            .statusCode(200)
+            .body("[0].remaining", equalTo(0));
+    }
+
+    @Test
+    void testCreateBookingBatch() {
+        String dayAfterTomorrow = LocalDateTime.now().plusDays(2).format(FORMATTER);
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 1; i <= 7; i++) {
+            body.append("{\"description\":\"Batch ").append(i)
+                .append("\",\"municipality\":\"Sines\",\"date\":\"").append(dayAfterTomorrow).append("\"},");
+        }
+        body.append("{\"description\":\"Missing municipality\",\"date\":\"").append(dayAfterTomorrow).append("\"}]");
+
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .body(body.toString())
+        .when()
+            .post("/api/bookings/batch")
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(8))
+            .body("findAll { it.status == 'CREATED' }", hasSize(5))
+            .body("findAll { it.status == 'REJECTED' }", hasSize(2))
+            .body("[7].status", equalTo("INVALID"));
+
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .body("{\"description\":\"One more\",\"municipality\":\"Sines\",\"date\":\"" + dayAfterTomorrow + "\"}")
+        .when()
+            .post("/api/bookings")
+        .then()
+            .statusCode(429);
+    }
+
     @Test
     void testCancelBooking() {
         String tomorrow = LocalDateTime.now().plusDays(1).format(FORMATTER);
@@ -159,6 +335,89 @@ class BookingControllerIT {
                 .body("status", equalTo("CANCELLED"));
     }
     
+    @Test
+    void testStatsFollowCreatesAndStatusChanges() {
+        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
+        String[] tokens = new String[3];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body("{\"description\":\"Stats\",\"municipality\":\"Alvito\",\"date\":\"" + tomorrow.format(FORMATTER) + "\"}")
+                .post("/api/bookings")
+                .then()
+                .statusCode(201)
+                .extract()
+                .path("token");
+        }
+        RestAssured.given().put("/api/bookings/" + tokens[0] + "/cancel").then().statusCode(200);
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .body("{\"status\":\"ASSIGNED\"}")
+            .put("/api/bookings/" + tokens[1] + "/status")
+            .then().statusCode(200);
+
+        String day = tomorrow.toLocalDate().toString();
+        RestAssured.given()
+            .when()
+                .get("/api/bookings/stats?municipality=Alvito&from=" + day + "&to=" + day)
+            .then()
+                .statusCode(200)
+                .body("size()", equalTo(3))
+                .body("find { it.status == 'ASSIGNED' }.total", equalTo(1))
+                .body("find { it.status == 'CANCELLED' }.total", equalTo(1))
+                .body("find { it.status == 'RECEIVED' }.total", equalTo(1));
+        RestAssured.given()
+            .when()
+                .get("/api/bookings/stats?municipality=Alvito&status=RECEIVED&from=" + tomorrow.toLocalDate().plusDays(1))
+            .then()
+                .statusCode(200)
+                .body("size()", equalTo(0));
+    }
+
+    @Test
+    void testRetriedRequestsWithIdempotencyKeyRunOnce() {
+        String body = "{\"description\":\"Retry\",\"municipality\":\"Mourão\",\"date\":\""
+            + LocalDateTime.now().plusDays(1).format(FORMATTER) + "\"}";
+        String token = RestAssured.given()
+            .contentType(ContentType.JSON)
+            .header("Idempotency-Key", "create-1")
+            .body(body)
+            .post("/api/bookings")
+            .then()
+            .statusCode(201)
+            .extract()
+            .path("token");
+
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .header("Idempotency-Key", "create-1")
+            .body(body)
+        .when()
+            .post("/api/bookings")
+        .then()
+            .statusCode(201)
+            .header("Idempotent-Replayed", "true")
+            .body("token", equalTo(token));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from booking_request where municipality = 'Mourão'", Long.class))
+            .isEqualTo(1);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            RestAssured.given()
+                .header("Idempotency-Key", "cancel-1")
+            .when()
+                .put("/api/bookings/" + token + "/cancel")
+            .then()
+                .statusCode(200)
+                .body("status", equalTo("CANCELLED"));
+        }
+        // a new attempt without the key runs again and finds the booking already cancelled
+        RestAssured.given()
+            .when()
+                .put("/api/bookings/" + token + "/cancel")
+            .then()
+                .statusCode(409);
+    }
+
     @Test
     void testCancelNonExistentBooking() {
         RestAssured.given()
@@ -270,6 +529,85 @@ class BookingControllerIT {
             .body("municipality", hasItem(municipality));
     }
 
+    @Test
+    void testListBookingsWithFiltersAndCursor() {
+        String tomorrow = LocalDateTime.now().plusDays(1).format(FORMATTER);
+        for (int i = 1; i <= 3; i++) {
+            RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body("{\"description\":\"Page " + i + "\",\"municipality\":\"Tavira\",\"date\":\"" + tomorrow + "\"}")
+                .post("/api/bookings")
+                .then()
+                .statusCode(201);
+        }
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .body("{\"description\":\"Elsewhere\",\"municipality\":\"Lagos\",\"date\":\"" + tomorrow + "\"}")
+            .post("/api/bookings");
+
+        String cursor =
+            RestAssured.given()
+                .queryParam("municipality", "Tavira")
+                .queryParam("limit", 2)
+            .when()
+                .get("/api/bookings")
+            .then()
+                .statusCode(200)
+                .body("$", hasSize(2))
+                .body("municipality", everyItem(equalTo("Tavira")))
+                .header("X-Next-Cursor", notNullValue())
+                .extract()
+                .header("X-Next-Cursor");
+
+        RestAssured.given()
+            .queryParam("municipality", "Tavira")
+            .queryParam("limit", 2)
+            .queryParam("after", cursor)
+        .when()
+            .get("/api/bookings")
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(1))
+            .body("[0].description", equalTo("Page 3"))
+            .header("X-Next-Cursor", nullValue());
+    }
+
+    @Test
+    void testExportBookingsAsNdjsonAndCsv() {
+        String tomorrow = LocalDateTime.now().plusDays(1).format(FORMATTER);
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .body("{\"description\":\"Sofa, two chairs\",\"municipality\":\"Loulé\",\"date\":\"" + tomorrow + "\"}")
+            .post("/api/bookings")
+            .then()
+            .statusCode(201);
+
+        String ndjson =
+            RestAssured.given()
+            .when()
+                .get("/api/bookings/export")
+            .then()
+                .statusCode(200)
+                .contentType(containsString("application/x-ndjson"))
+                .extract()
+                .asString();
+        assertThat(ndjson.lines().toList()).hasSize(1);
+        assertThat(ndjson).contains("\"municipality\":\"Loulé\"", "\"date\":\"" + tomorrow + "\"");
+
+        String csv =
+            RestAssured.given()
+                .queryParam("format", "csv")
+            .when()
+                .get("/api/bookings/export")
+            .then()
+                .statusCode(200)
+                .contentType(containsString("text/csv"))
+                .extract()
+                .asString();
+        assertThat(csv.lines().toList()).hasSize(2);
+        assertThat(csv).startsWith("id,token,description,municipality,date,status").contains("\"Sofa, two chairs\",Loulé");
+    }
+
     @Test
     void testCancelAlreadyCancelledBooking() {
         String tomorrow = LocalDateTime.now().plusDays(1).format(FORMATTER);
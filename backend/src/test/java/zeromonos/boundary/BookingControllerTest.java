@@ -5,16 +5,27 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import zeromonos.data.BookingHistoryRequest;
 import zeromonos.data.BookingRequest;
+import zeromonos.service.BookingBatchResult;
+import zeromonos.service.BookingDailyStat;
+import zeromonos.service.BookingExportService;
+import zeromonos.service.BookingPage;
 import zeromonos.service.BookingService;
+import zeromonos.service.DailyLimitReachedException;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
@@ -30,6 +41,10 @@ class BookingControllerTest {
 
     @MockitoBean
     private BookingService bookingService;
+    @MockitoBean
+    private BookingExportService exportService;
+    @MockitoBean
+    private BookingEventHub eventHub;
 
     @Test
     void whenPostBooking_thenCreateBooking() throws Exception {
@@ -52,23 +67,148 @@ class BookingControllerTest {
         verify(bookingService, times(1)).createBooking(Mockito.anyString(), Mockito.anyString(), Mockito.any(LocalDateTime.class));
     }
 
+    @Test
+    void whenPostBookingWithMissingOrMalformedDate_thenReturn400() throws Exception {
+        mvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"room\",\"municipality\":\"Aveiro\"}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"room\",\"municipality\":\"Aveiro\",\"date\":\"not-a-date\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void whenPostBookingBatch_thenReturnResultPerItem() throws Exception {
+        when(bookingService.createBookings(Mockito.anyList())).thenReturn(List.of(
+                new BookingBatchResult(0, BookingBatchResult.CREATED, "TOKEN123"),
+                new BookingBatchResult(1, BookingBatchResult.INVALID, null)));
+
+        mvc.perform(
+                post("/api/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"description\":\"room\",\"municipality\":\"Aveiro\",\"date\":\"2024-06-10T10:00:00\"},"
+                                + "{\"description\":\"room\",\"municipality\":\"Aveiro\",\"date\":\"not-a-date\"}]")
+        )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[0].token", is("TOKEN123")))
+                .andExpect(jsonPath("$[1].status", is("INVALID")));
+
+        verify(bookingService, times(1)).createBookings(Mockito.argThat(drafts ->
+                drafts.size() == 2 && drafts.get(0).isComplete() && drafts.get(1).date() == null));
+    }
+
+    @Test
+    void whenPostEmptyBookingBatch_thenReturn400() throws Exception {
+        mvc.perform(post("/api/bookings/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).createBookings(Mockito.anyList());
+    }
+
     @Test
     void givenManyBookings_whenGetBookings_thenReturnJsonArray() throws Exception {
         BookingRequest b1 = new BookingRequest("room", "Aveiro", LocalDateTime.of(2024, 6, 10, 10, 0), "T1");
         BookingRequest b2 = new BookingRequest("car", "Porto", LocalDateTime.of(2024, 6, 11, 11, 0), "T2");
         List<BookingRequest> allBookings = Arrays.asList(b1, b2);
 
-        when(bookingService.getAllBookings()).thenReturn(allBookings);
+        when(bookingService.findBookings(null, null, null, null, null, 50)).thenReturn(new BookingPage(allBookings, null));
 
         mvc.perform(
                 get("/api/bookings").contentType(MediaType.APPLICATION_JSON)
         )
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].description", is("room")))
                 .andExpect(jsonPath("$[1].description", is("car")));
 
-        verify(bookingService, times(1)).getAllBookings();
+        verify(bookingService, times(1)).findBookings(null, null, null, null, null, 50);
+    }
+
+    @Test
+    void whenGetBookingsWithFilters_thenPassFiltersAndReturnCursor() throws Exception {
+        BookingRequest b1 = new BookingRequest("room", "Aveiro", LocalDateTime.of(2024, 6, 10, 10, 0), "T1");
+        b1.setId(42L);
+        when(bookingService.findBookings("Aveiro", "RECEIVED", LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30), 10L, 1))
+                .thenReturn(new BookingPage(List.of(b1), 42L));
+
+        mvc.perform(get("/api/bookings")
+                        .param("municipality", "Aveiro")
+                        .param("status", "RECEIVED")
+                        .param("from", "2024-06-01")
+                        .param("to", "2024-06-30")
+                        .param("after", "10")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "42"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void whenGetBookingsWithOversizedLimit_thenReturn400() throws Exception {
+        mvc.perform(get("/api/bookings").param("limit", "10000"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).findBookings(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void whenExportCsv_thenStreamRows() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("id,token\n1,TOKEN123\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).export(Mockito.eq(BookingExportService.Format.CSV), Mockito.any(OutputStream.class));
+
+        MvcResult result = mvc.perform(get("/api/bookings/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,token\n1,TOKEN123\n"));
+    }
+
+    @Test
+    void whenExportUnknownFormat_thenReturn400() throws Exception {
+        mvc.perform(get("/api/bookings/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGetBookingStats_thenReturnBuckets() throws Exception {
+        LocalDate day = LocalDate.of(2025, 11, 1);
+        when(bookingService.getDailyStats("Aveiro", null, day, day.plusDays(6)))
+            .thenReturn(List.of(new BookingDailyStat(day, "Aveiro", "RECEIVED", 4), new BookingDailyStat(day, "Aveiro", "CANCELLED", 1)));
+
+        mvc.perform(get("/api/bookings/stats").param("municipality", "Aveiro").param("from", "2025-11-01").param("to", "2025-11-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].day", is("2025-11-01")))
+                .andExpect(jsonPath("$[0].status", is("RECEIVED")))
+                .andExpect(jsonPath("$[0].total", is(4)));
+    }
+
+    @Test
+    void whenGetBookingStatsWithReversedRange_thenBadRequest() throws Exception {
+        mvc.perform(get("/api/bookings/stats").param("from", "2025-11-07").param("to", "2025-11-01"))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).getDailyStats(any(), any(), any(), any());
+    }
+
+    @Test
+    void whenGetTokenCacheStats_thenReturnCounters() throws Exception {
+        when(bookingService.getTokenCacheStats()).thenReturn(Map.of("hits", 3L, "misses", 1L, "evictions", 0L, "size", 1L));
+
+        mvc.perform(get("/api/bookings/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits", is(3)))
+                .andExpect(jsonPath("$.misses", is(1)));
     }
 
     @Test
@@ -84,6 +224,52 @@ class BookingControllerTest {
         verify(bookingService, times(1)).getBookingByToken("TOKEN123");
     }
 
+    @Test
+    void whenGetBookingWithCurrentETag_thenReturn304WithoutLoading() throws Exception {
+        when(bookingService.getBookingTag("TOKEN123")).thenReturn(Optional.of("7-2"));
+
+        mvc.perform(get("/api/bookings/TOKEN123").header("If-None-Match", "\"7-2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"7-2\""))
+                .andExpect(content().string(""));
+
+        verify(bookingService, never()).getBookingByToken(Mockito.anyString());
+    }
+
+    @Test
+    void whenGetBookingWithStaleETag_thenReturnBookingAndNewETag() throws Exception {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.of(2024, 6, 10, 10, 0), "TOKEN123");
+        booking.setId(7L);
+        booking.setVersion(3L);
+        when(bookingService.getBookingTag("TOKEN123")).thenReturn(Optional.of("7-3"));
+        when(bookingService.getBookingByToken("TOKEN123")).thenReturn(Optional.of(booking));
+
+        mvc.perform(get("/api/bookings/TOKEN123").header("If-None-Match", "\"7-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7-3\""))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(jsonPath("$.token", is("TOKEN123")));
+    }
+
+    @Test
+    void whenSubscribeToUnknownBooking_thenReturn404() throws Exception {
+        when(bookingService.getBookingByToken("INVALID")).thenReturn(Optional.empty());
+
+        mvc.perform(get("/api/bookings/INVALID/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(eventHub);
+    }
+
+    @Test
+    void whenEventHubIsFull_thenReturn503() throws Exception {
+        when(eventHub.subscribeStaff("Aveiro")).thenReturn(null);
+
+        mvc.perform(get("/api/bookings/events").param("municipality", "Aveiro").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"));
+    }
+
     @Test
     void whenGetBookingByInvalidToken_thenReturn404() throws Exception {
         when(bookingService.getBookingByToken("INVALID")).thenReturn(Optional.empty());
@@ -111,6 +297,18 @@ class BookingControllerTest {
         verify(bookingService, times(1)).save(Mockito.any(BookingRequest.class));
     }
 
+    @Test
+    void whenCancelStaleBooking_thenReturn409() throws Exception {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.of(2024, 6, 10, 10, 0), "TOKEN123");
+
+        when(bookingService.getBookingByToken("TOKEN123")).thenReturn(Optional.of(booking));
+        when(bookingService.save(Mockito.any(BookingRequest.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(BookingRequest.class, 1L));
+
+        mvc.perform(put("/api/bookings/TOKEN123/cancel"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void whenCancelNonExistentBooking_thenReturn404() throws Exception {
         when(bookingService.getBookingByToken("INVALID")).thenReturn(Optional.empty());
@@ -140,6 +338,20 @@ class BookingControllerTest {
         verify(bookingService, times(1)).save(Mockito.any(BookingRequest.class));
     }
 
+    @Test
+    void whenReactivatingBookingOnFullDay_thenReturn429() throws Exception {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.of(2024, 6, 10, 10, 0), "TOKEN123");
+        booking.setStatus("CANCELLED");
+        when(bookingService.getBookingByToken("TOKEN123")).thenReturn(Optional.of(booking));
+        when(bookingService.save(Mockito.any(BookingRequest.class)))
+                .thenThrow(new DailyLimitReachedException("Booking limit reached for this municipality"));
+
+        mvc.perform(put("/api/bookings/TOKEN123/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"status\":\"RECEIVED\"}"))
+            .andExpect(status().isTooManyRequests());
+    }
+
     @Test
     void whenUpdateStatusForNonExistentBooking_thenReturn404() throws Exception {
         when(bookingService.getBookingByToken("INVALID")).thenReturn(Optional.empty());
@@ -165,12 +377,24 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].status", is("IN_PROGRESS")))
-                .andExpect(jsonPath("$[1].status", is("COMPLETED")));
+                .andExpect(jsonPath("$[1].status", is("COMPLETED")))
+                .andExpect(jsonPath("$[0].booking").doesNotExist());
 
         verify(bookingService, times(1)).getBookingByToken("TOKEN123");
         verify(bookingService, times(1)).getStatusHistory(booking);
     }
 
+    @Test
+    void whenGetHistoryWithCurrentETag_thenReturn304WithoutLoading() throws Exception {
+        when(bookingService.getHistoryTag("TOKEN123")).thenReturn(Optional.of("7-3-2-15"));
+
+        mvc.perform(get("/api/bookings/TOKEN123/history").header("If-None-Match", "\"7-3-2-15\""))
+                .andExpect(status().isNotModified());
+
+        verify(bookingService, never()).getBookingByToken(Mockito.anyString());
+        verify(bookingService, never()).getStatusHistory(Mockito.any(BookingRequest.class));
+    }
+
     @Test
     void whenGetHistoryForNonExistentBooking_thenReturn404() throws Exception {
         when(bookingService.getBookingByToken("INVALID")).thenReturn(Optional.empty());
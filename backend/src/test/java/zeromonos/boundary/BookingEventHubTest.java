@@ -0,0 +1,95 @@
+package zeromonos.boundary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import zeromonos.service.BookingStatusEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingEventHubTest {
+
+    private static final int BUFFER = 2;
+
+    private final CountDownLatch slowClientReads = new CountDownLatch(1);
+    private final CountDownLatch slowClientClosed = new CountDownLatch(1);
+    private final List<Set<DataWithMediaType>> received = new CopyOnWriteArrayList<>();
+    private int emitters;
+
+    // the first subscriber never reads, so its writes block; the others record what they are sent
+    private final BookingEventHub hub = new BookingEventHub(new ObjectMapper().registerModule(new JavaTimeModule()),
+            10, 60000, 15000, 100, BUFFER, 2) {
+        @Override
+        SseEmitter createEmitter(long timeoutMs) {
+            return emitters++ == 0 ? new SlowEmitter() : new RecordingEmitter();
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        slowClientReads.countDown();
+        hub.stop();
+    }
+
+    @Test
+    void testSlowSubscriberIsDisconnectedWithoutDelayingOthers() throws Exception {
+        hub.subscribeStaff("Aveiro");
+        hub.subscribeStaff("Aveiro");
+
+        long publishing = 0;
+        for (int version = 1; version <= 10; version++) {
+            long start = System.nanoTime();
+            hub.deliver(new BookingStatusEvent("T1", "Aveiro", "RECEIVED", "ASSIGNED", (long) version, LocalDateTime.now()));
+            publishing += System.nanoTime() - start;
+            // the reading client keeps up: everything up to this event arrives (its connected frame comes first)
+            for (int i = 0; i < 100 && received.size() < version + 1; i++) {
+                Thread.sleep(10);
+            }
+            assertThat(received).hasSize(version + 1);
+        }
+
+        // publishing never waited on the blocked client, which was dropped once its buffer was full
+        assertThat(publishing).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(hub.subscriberCount()).isEqualTo(1);
+
+        // once its blocked write returns, the lagging client is closed
+        slowClientReads.countDown();
+        assertThat(slowClientClosed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private final class SlowEmitter extends SseEmitter {
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            try {
+                slowClientReads.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void complete() {
+            slowClientClosed.countDown();
+        }
+    }
+
+    private final class RecordingEmitter extends SseEmitter {
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            received.add(items);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -169,4 +170,51 @@ class EmployeeControllerIT {
             .statusCode(200)
             .body("$", hasSize(greaterThanOrEqualTo(4)));
     }
-}
\ No newline at end of file
+
+    // municipality lists come from the query cache and are refreshed when an employee is added
+    @Test
+    void testMunicipalityListIsCachedAndRefreshedOnCreate() {
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\":\"First\",\"email\":\"first@example.com\",\"municipality\":\"Chaves\",\"role\":\"COLLECTOR\"}")
+            .post("/api/employees")
+            .then()
+            .statusCode(201);
+
+        long hitsBefore = queryCacheHits();
+        for (int i = 0; i < 2; i++) {
+            RestAssured.given()
+            .when()
+                .get("/api/employees/municipality/Chaves")
+            .then()
+                .statusCode(200)
+                .body("$", hasSize(1));
+        }
+        assertThat(queryCacheHits()).isGreaterThan(hitsBefore);
+
+        RestAssured.given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\":\"Second\",\"email\":\"second@example.com\",\"municipality\":\"Chaves\",\"role\":\"DRIVER\"}")
+            .post("/api/employees")
+            .then()
+            .statusCode(201);
+
+        RestAssured.given()
+        .when()
+            .get("/api/employees/municipality/Chaves")
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(2))
+            .body("name", hasItems("First", "Second"));
+    }
+
+    private long queryCacheHits() {
+        return RestAssured.given()
+            .get("/api/employees/cache/stats")
+            .then()
+            .statusCode(200)
+            .extract()
+            .jsonPath()
+            .getLong("queryHits");
+    }
+}
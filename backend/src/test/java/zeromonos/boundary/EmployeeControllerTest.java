@@ -10,9 +10,11 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import zeromonos.data.EmployeeRequest;
 import zeromonos.data.EmployeeRepository;
+import zeromonos.service.WorkTaskService;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
@@ -28,13 +30,15 @@ class EmployeeControllerTest {
 
     @MockitoBean
     private EmployeeRepository employeeRepository;
+    @MockitoBean
+    private WorkTaskService workTaskService;
 
     @Test
     void whenPostEmployee_thenCreateEmployee() throws Exception {
         EmployeeRequest employee = new EmployeeRequest("John Doe", "john@example.com", "Aveiro", "COLLECTOR");
         employee.setId(1L);
 
-        when(employeeRepository.save(Mockito.any(EmployeeRequest.class))).thenReturn(employee);
+        when(workTaskService.createEmployee("John Doe", "john@example.com", "Aveiro", "COLLECTOR")).thenReturn(employee);
 
         mvc.perform(
                 post("/api/employees")
@@ -47,7 +51,18 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.municipality", is("Aveiro")))
                 .andExpect(jsonPath("$.role", is("COLLECTOR")));
 
-        verify(employeeRepository, times(1)).save(Mockito.any(EmployeeRequest.class));
+        verify(workTaskService, times(1)).createEmployee("John Doe", "john@example.com", "Aveiro", "COLLECTOR");
+        verify(employeeRepository, never()).save(Mockito.any(EmployeeRequest.class));
+    }
+
+    @Test
+    void whenGetCacheStats_thenReturnCounters() throws Exception {
+        when(workTaskService.getEmployeeCacheStats()).thenReturn(Map.of("entityHits", 9L, "entityMisses", 1L, "entityHitRatioPercent", 90L));
+
+        mvc.perform(get("/api/employees/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entityHits", is(9)))
+                .andExpect(jsonPath("$.entityHitRatioPercent", is(90)));
     }
 
     @Test
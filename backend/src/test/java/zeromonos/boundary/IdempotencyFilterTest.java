@@ -0,0 +1,202 @@
+package zeromonos.boundary;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private IdempotencyFilter filter;
+    private SimpleMeterRegistry registry;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(100, Duration.ofMinutes(5));
+        registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+    }
+
+    @Test
+    void testRetryReplaysStoredResponseWithoutReachingController() throws Exception {
+        MockHttpServletResponse first = perform("POST", "/api/bookings", "K1", "{\"a\":1}", respond(201, "{\"token\":\"T1\"}"));
+        MockHttpServletResponse retry = perform("POST", "/api/bookings", "K1", "{\"a\":1}", respond(201, "{\"token\":\"T2\"}"));
+
+        assertThat(calls).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"token\":\"T1\"}");
+        assertThat(retry.getContentType()).isEqualTo("application/json");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(registry.counter("http.idempotency.replays").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testKeyReusedWithDifferentBodyIsRejected() throws Exception {
+        perform("POST", "/api/bookings", "K1", "{\"a\":1}", respond(201, "{}"));
+
+        MockHttpServletResponse retry = perform("POST", "/api/bookings", "K1", "{\"a\":2}", respond(201, "{}"));
+
+        assertThat(retry.getStatus()).isEqualTo(422);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void testSameKeyOnAnotherPathIsIndependent() throws Exception {
+        perform("PUT", "/api/bookings/T1/cancel", "K1", "", respond(200, "{}"));
+        perform("PUT", "/api/bookings/T2/cancel", "K1", "", respond(200, "{}"));
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void testSameKeyFromAnotherClientIsIndependent() throws Exception {
+        perform("10.0.0.1", "POST", "/api/bookings", "K1", "{}", respond(201, "{\"token\":\"T1\"}"));
+        MockHttpServletResponse other = perform("10.0.0.2", "POST", "/api/bookings", "K1", "{}", respond(201, "{\"token\":\"T2\"}"));
+
+        assertThat(calls).hasValue(2);
+        assertThat(other.getContentAsString()).isEqualTo("{\"token\":\"T2\"}");
+        assertThat(other.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void testBodyCanBeReadAsynchronously() throws Exception {
+        perform("POST", "/api/bookings", "K1", "{\"a\":1}", (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            StringBuilder read = new StringBuilder();
+            AtomicInteger completed = new AtomicInteger();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        read.append((char) in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    completed.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+            assertThat(read).hasToString("{\"a\":1}");
+            assertThat(completed).hasValue(1);
+            response.setStatus(201);
+        });
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void testServerErrorsAndRateLimitsAreNotStored() throws Exception {
+        perform("POST", "/api/bookings", "K1", "{}", respond(500, ""));
+        perform("POST", "/api/bookings", "K1", "{}", respond(429, ""));
+        MockHttpServletResponse last = perform("POST", "/api/bookings", "K1", "{}", respond(201, "{}"));
+
+        assertThat(calls).hasValue(3);
+        assertThat(last.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void testRequestsWithoutKeyOrOnOtherRoutesPassThrough() throws Exception {
+        perform("POST", "/api/bookings", null, "{}", respond(201, "{}"));
+        perform("POST", "/api/bookings", null, "{}", respond(201, "{}"));
+        perform("GET", "/api/bookings/T1", "K1", "", respond(200, "{}"));
+        perform("GET", "/api/bookings/T1", "K1", "", respond(200, "{}"));
+
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void testRetryWhileFirstRequestRunsGetsConflict() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> perform("POST", "/api/bookings", "K1", "{}", (request, response) -> {
+                running.countDown();
+                await(release);
+                response.setStatus(201);
+            }));
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            MockHttpServletResponse retry = perform("POST", "/api/bookings", "K1", "{}", respond(201, "{}"));
+            release.countDown();
+
+            assertThat(retry.getStatus()).isEqualTo(409);
+            assertThat(retry.getHeader("Retry-After")).isEqualTo("1");
+            assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String key, String body, Handler handler) throws Exception {
+        return perform("127.0.0.1", method, path, key, body, handler);
+    }
+
+    private MockHttpServletResponse perform(String address, String method, String path, String key, String body,
+                                            Handler handler) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(address);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                calls.incrementAndGet();
+                // the controller still sees the body the filter read
+                assertThat(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(body);
+                handler.handle(req, resp);
+            }
+        }));
+        return response;
+    }
+
+    private static Handler respond(int status, String body) {
+        return (request, response) -> {
+            response.setStatus(status);
+            response.setContentType("application/json");
+            response.getWriter().write(body);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws IOException;
+    }
+}
@@ -0,0 +1,67 @@
+package zeromonos.boundary;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class MetricsEndpointIT {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.baseURI = "http://localhost";
+        RestAssured.port = port;
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("DELETE FROM work_task_request");
+        jdbcTemplate.execute("DELETE FROM employee_request");
+        jdbcTemplate.execute("DELETE FROM booking_history_request");
+        jdbcTemplate.execute("DELETE FROM booking_request");
+    }
+
+    @Test
+    void testPrometheusScrapeExposesPipelineMetrics() {
+        String dayAfterTomorrow = LocalDateTime.now().plusDays(2).format(FORMATTER);
+        for (int i = 1; i <= 6; i++) {
+            RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body("{\"description\":\"Booking " + i + "\",\"municipality\":\"Mora\",\"date\":\"" + dayAfterTomorrow + "\"}")
+                .post("/api/bookings");
+        }
+
+        String scrape = RestAssured.get("/actuator/prometheus").then().statusCode(200).extract().asString();
+
+        assertThat(scrape)
+            .contains("bookings_capacity_rejections_total{municipality=\"Mora\"} 1.0")
+            .contains("method=\"createBooking\"")
+            .contains("bookings_service_seconds_count")
+            .contains("hikaricp_connections_active")
+            .contains("hibernate_query_executions_total")
+            .contains("cache_gets_total{cache=\"booking-tokens\"")
+            .contains("http_rate_limit_requests_total{group=\"bookings\",outcome=\"rejected\"}")
+            .contains("cache_gets_total{cache=\"idempotency-keys\"");
+    }
+}
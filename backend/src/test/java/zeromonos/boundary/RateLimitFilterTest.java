@@ -0,0 +1,131 @@
+package zeromonos.boundary;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private MockEnvironment environment;
+    private SimpleMeterRegistry registry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+            .withProperty("api.rate-limit.bookings.per-second", "2")
+            .withProperty("api.rate-limit.bookings.burst", "3")
+            .withProperty("api.rate-limit.tasks.per-second", "1")
+            .withProperty("api.rate-limit.tasks.burst", "1");
+        registry = new SimpleMeterRegistry();
+        filter = newFilter();
+    }
+
+    @Test
+    void testBurstIsAdmittedThenRejectedWithRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform("10.0.0.1", "/api/bookings").getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse rejected = perform("10.0.0.1", "/api/bookings");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(registry.counter(RateLimitFilter.REQUESTS_METRIC, "group", "bookings", "outcome", "allowed").count()).isEqualTo(3);
+        assertThat(registry.counter(RateLimitFilter.REQUESTS_METRIC, "group", "bookings", "outcome", "rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testBucketRefillsAtConfiguredRate() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            perform("10.0.0.1", "/api/bookings/T1");
+        }
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(perform("10.0.0.1", "/api/bookings/T1").getStatus()).isEqualTo(200);
+        assertThat(perform("10.0.0.1", "/api/bookings/T1").getStatus()).isEqualTo(429);
+
+        // an idle client is back to a full burst, never more
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform("10.0.0.1", "/api/bookings/T1").getStatus()).isEqualTo(200);
+        }
+        assertThat(perform("10.0.0.1", "/api/bookings/T1").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void testBucketsArePerClientAndPerController() throws Exception {
+        perform("10.0.0.1", "/api/tasks");
+        assertThat(perform("10.0.0.1", "/api/tasks/7").getStatus()).isEqualTo(429);
+
+        assertThat(perform("10.0.0.2", "/api/tasks").getStatus()).isEqualTo(200);
+        assertThat(perform("10.0.0.1", "/api/bookings").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testOtherPathsAndDisabledLimiterPassThrough() throws Exception {
+        perform("10.0.0.1", "/api/tasks");
+        assertThat(perform("10.0.0.1", "/actuator/health").getStatus()).isEqualTo(200);
+        assertThat(perform("10.0.0.1", "/api/tasksx").getStatus()).isEqualTo(200);
+
+        environment.setProperty("api.rate-limit.enabled", "false");
+        filter = newFilter();
+        perform("10.0.0.1", "/api/tasks");
+        assertThat(perform("10.0.0.1", "/api/tasks").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testConcurrentRequestsNeverExceedBurst() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                Callable<Integer> request = () -> {
+                    start.await();
+                    return perform("10.0.0.1", "/api/bookings").getStatus();
+                };
+                results.add(executor.submit(request));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Integer> result : results) {
+                admitted += result.get(10, TimeUnit.SECONDS) == 200 ? 1 : 0;
+            }
+            assertThat(admitted).isEqualTo(3);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RateLimitFilter newFilter() {
+        RateLimitFilter created = new RateLimitFilter(environment, clock::get);
+        created.bindTo(registry);
+        return created;
+    }
+
+    private MockHttpServletResponse perform(String address, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
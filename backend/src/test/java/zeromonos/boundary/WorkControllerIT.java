@@ -325,4 +325,140 @@ class WorkControllerIT {
         .then()
             .statusCode(404);
     }
-}
\ No newline at end of file
+
+    // tasks by employee, one page at a time
+    @Test
+    void testGetTasksByEmployeePaged() {
+        String tomorrow = LocalDateTime.now().plusDays(1).format(FORMATTER);
+
+        Integer employeeIdInt =
+            RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\":\"Pager\",\"email\":\"pager@example.com\",\"municipality\":\"Lagos\",\"role\":\"COLLECTOR\"}")
+                .post("/api/employees")
+                .then()
+                .extract()
+                .path("id");
+        Long employeeId = ((Number) employeeIdInt).longValue();
+
+        for (int i = 0; i < 3; i++) {
+            String bookingToken =
+                RestAssured.given()
+                    .contentType(ContentType.JSON)
+                    .body("{\"description\":\"Paged task " + i + "\",\"municipality\":\"Lagos\",\"date\":\"" + tomorrow + "\"}")
+                    .post("/api/bookings")
+                    .then()
+                    .statusCode(201)
+                    .extract()
+                    .path("token");
+            RestAssured.given()
+                .contentType(ContentType.JSON)
+                .body("{\"bookingToken\":\"" + bookingToken + "\",\"employeeId\":" + employeeId + "}")
+                .post("/api/tasks")
+                .then()
+                .statusCode(201);
+        }
+
+        String cursor =
+            RestAssured.given()
+                .queryParam("limit", 2)
+            .when()
+                .get("/api/tasks/employee/" + employeeId)
+            .then()
+                .statusCode(200)
+                .body("$", hasSize(2))
+                .body("[0].bookingToken", notNullValue())
+                .body("[0].employeeName", equalTo("Pager"))
+                .header("X-Next-Cursor", notNullValue())
+                .extract()
+                .header("X-Next-Cursor");
+
+        RestAssured.given()
+            .queryParam("limit", 2)
+            .queryParam("after", cursor)
+        .when()
+            .get("/api/tasks/employee/" + employeeId)
+        .then()
+            .statusCode(200)
+            .body("$", hasSize(1))
+            .body("[0].bookingDescription", equalTo("Paged task 2"))
+            .header("X-Next-Cursor", nullValue());
+    }
+
+    // unknown employee
+    @Test
+    void testGetTasksByUnknownEmployee() {
+        RestAssured.given()
+        .when()
+            .get("/api/tasks/employee/999999")
+        .then()
+            .statusCode(404);
+    }
+
+    // automatic dispatch to the least-loaded employee
+    @Test
+    void testDispatchSpreadsBookingsOverEmployees() {
+        String tomorrow = LocalDateTime.now().plusDays(1).format(FORMATTER);
+
+        Long[] employeeIds = new Long[2];
+        for (int i = 0; i < employeeIds.length; i++) {
+            Integer employeeIdInt =
+                RestAssured.given()
+                    .contentType(ContentType.JSON)
+                    .body("{\"name\":\"Dispatch " + i + "\",\"email\":\"d" + i + "@example.com\",\"municipality\":\"Silves\",\"role\":\"COLLECTOR\"}")
+                    .post("/api/employees")
+                    .then()
+                    .extract()
+                    .path("id");
+            employeeIds[i] = ((Number) employeeIdInt).longValue();
+        }
+
+        String firstToken = null;
+        for (int i = 0; i < 4; i++) {
+            String token =
+                RestAssured.given()
+                    .contentType(ContentType.JSON)
+                    .body("{\"description\":\"Dispatch " + i + "\",\"municipality\":\"Silves\",\"date\":\"" + tomorrow + "\"}")
+                    .post("/api/bookings")
+                    .then()
+                    .statusCode(201)
+                    .extract()
+                    .path("token");
+            if (firstToken == null) {
+                firstToken = token;
+            }
+        }
+
+        RestAssured.given()
+        .when()
+            .post("/api/tasks/dispatch")
+        .then()
+            .statusCode(200)
+            .body("dispatched", equalTo(4))
+            .body("unassigned", equalTo(0));
+
+        for (Long employeeId : employeeIds) {
+            RestAssured.given()
+            .when()
+                .get("/api/tasks/employee/" + employeeId)
+            .then()
+                .statusCode(200)
+                .body("$", hasSize(2));
+        }
+
+        RestAssured.given()
+        .when()
+            .get("/api/bookings/" + firstToken)
+        .then()
+            .statusCode(200)
+            .body("status", equalTo("ASSIGNED"));
+
+        // nothing left to dispatch
+        RestAssured.given()
+        .when()
+            .post("/api/tasks/dispatch")
+        .then()
+            .statusCode(200)
+            .body("dispatched", equalTo(0));
+    }
+}
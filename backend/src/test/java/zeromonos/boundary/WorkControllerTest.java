@@ -5,17 +5,22 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import zeromonos.data.BookingRequest;
 import zeromonos.data.EmployeeRequest;
+import zeromonos.data.TaskSummary;
 import zeromonos.data.WorkTaskRequest;
 import zeromonos.data.WorkTaskRepository;
 import zeromonos.data.EmployeeRepository;
 import zeromonos.data.BookingRepository;
+import zeromonos.service.DailyLimitReachedException;
+import zeromonos.service.TaskDispatchResult;
+import zeromonos.service.TaskDispatchService;
+import zeromonos.service.WorkTaskPage;
 import zeromonos.service.WorkTaskService;
-import zeromonos.service.BookingService;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -42,7 +47,7 @@ class WorkControllerTest {
     @MockitoBean
     private BookingRepository bookingRepository;
     @MockitoBean
-    private BookingService bookingService;
+    private TaskDispatchService dispatchService;
 
     @Test
     void whenPostWork_thenCreateWork() throws Exception {
@@ -54,10 +59,7 @@ class WorkControllerTest {
         work.setId(1L);
         work.setStatus("ASSIGNED"); 
 
-        when(bookingService.getBookingByToken("TOKEN123")).thenReturn(Optional.of(booking));
-        when(employeeRepository.findById(1L)).thenReturn(Optional.of(employee));
-        when(workTaskRepository.findByBooking(booking)).thenReturn(List.of());
-        when(workTaskRepository.save(Mockito.any(WorkTaskRequest.class))).thenReturn(work);
+        when(workService.assignTask("TOKEN123", 1L)).thenReturn(work);
 
         mvc.perform(
                 post("/api/tasks")
@@ -66,10 +68,70 @@ class WorkControllerTest {
         )
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.status", is("ASSIGNED")))
-                .andExpect(jsonPath("$.assignedAt", notNullValue()));
+                .andExpect(jsonPath("$.assignedAt", notNullValue()))
+                .andExpect(jsonPath("$.bookingToken", is("TOKEN123")))
+                .andExpect(jsonPath("$.employeeName", is("John Doe")))
+                .andExpect(jsonPath("$.booking").doesNotExist())
+                .andExpect(jsonPath("$.assignedEmployee").doesNotExist());
+
+        verify(workService, times(1)).assignTask("TOKEN123", 1L);
+        verify(workTaskRepository, never()).findByBooking(Mockito.any());
+    }
 
-        verify(bookingService, times(1)).getBookingByToken("TOKEN123");
-        verify(employeeRepository, times(1)).findById(1L);
+    @Test
+    void whenAssignTaskWithoutEmployee_thenReturn400() throws Exception {
+        mvc.perform(
+                post("/api/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookingToken\":\"TOKEN123\"}")
+        )
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(workService);
+    }
+
+    @Test
+    void whenAssignTaskToCancelledBookingOnFullDay_thenReturn429() throws Exception {
+        when(workService.assignTask("TOKEN123", 1L)).thenThrow(new DailyLimitReachedException("Booking limit reached"));
+
+        mvc.perform(
+                post("/api/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookingToken\":\"TOKEN123\",\"employeeId\":1}")
+        )
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void whenAssignTaskToBookingWithTask_thenReturn409() throws Exception {
+        when(workService.assignTask("TOKEN123", 1L)).thenThrow(new IllegalStateException("Booking already has a task"));
+
+        mvc.perform(
+                post("/api/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookingToken\":\"TOKEN123\",\"employeeId\":1}")
+        )
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void whenDispatchTasks_thenReturnCounts() throws Exception {
+        when(dispatchService.dispatchPending(200)).thenReturn(new TaskDispatchResult(150, 50));
+
+        mvc.perform(post("/api/tasks/dispatch").param("limit", "200"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dispatched", is(150)))
+                .andExpect(jsonPath("$.unassigned", is(50)));
+
+        verify(dispatchService, times(1)).dispatchPending(200);
+    }
+
+    @Test
+    void whenDispatchWithInvalidLimit_thenReturn400() throws Exception {
+        mvc.perform(post("/api/tasks/dispatch").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(dispatchService);
     }
 
     @Test
@@ -82,7 +144,7 @@ class WorkControllerTest {
         WorkTaskRequest w2 = new WorkTaskRequest(booking2, employee);
         List<WorkTaskRequest> allTasks = Arrays.asList(w1, w2);
 
-        when(workTaskRepository.findAll()).thenReturn(allTasks);
+        when(workService.findTasks(null, 50)).thenReturn(new WorkTaskPage(allTasks.stream().map(TaskSummary::of).toList(), null));
 
         mvc.perform(get("/api/tasks").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -90,7 +152,8 @@ class WorkControllerTest {
                 .andExpect(jsonPath("$[0].status", is("ASSIGNED")))
                 .andExpect(jsonPath("$[1].status", is("ASSIGNED")));
 
-        verify(workTaskRepository, times(1)).findAll();
+        verify(workService, times(1)).findTasks(null, 50);
+        verify(workTaskRepository, never()).findAll();
     }
 
     @Test
@@ -98,18 +161,13 @@ class WorkControllerTest {
         BookingRequest booking = new BookingRequest("Test", "Aveiro", LocalDateTime.now(), "TOKEN123");
         booking.setStatus("ASSIGNED");
         EmployeeRequest employee = new EmployeeRequest("John", "john@example.com", "Aveiro", "COLLECTOR");
-        WorkTaskRequest work = new WorkTaskRequest(booking, employee);
-        work.setId(1L);
-        work.setStatus("ASSIGNED");
-        
         WorkTaskRequest completedWork = new WorkTaskRequest(booking, employee);
         completedWork.setId(1L);
         completedWork.setStatus("COMPLETED");
         completedWork.setCompletedAt(LocalDateTime.now());
         completedWork.setNotes("Task completed");
 
-        when(workTaskRepository.findById(1L)).thenReturn(Optional.of(work));
-        when(workTaskRepository.save(Mockito.any(WorkTaskRequest.class))).thenReturn(completedWork);
+        when(workService.completeTask(1L, "Task completed")).thenReturn(completedWork);
 
         mvc.perform(put("/api/tasks/1/complete")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -118,21 +176,40 @@ class WorkControllerTest {
                 .andExpect(jsonPath("$.status", is("COMPLETED")))
                 .andExpect(jsonPath("$.completedAt", notNullValue()));
 
-        verify(workTaskRepository, times(1)).findById(1L);
-        verify(workTaskRepository, times(1)).save(Mockito.any(WorkTaskRequest.class));
-        verify(bookingService, times(1)).save(booking);
+        verify(workService, times(1)).completeTask(1L, "Task completed");
     }
 
     @Test
     void whenCompleteNonExistentTask_thenReturn404() throws Exception {
-        when(workTaskRepository.findById(999L)).thenReturn(Optional.empty());
+        when(workService.completeTask(999L, "Test")).thenThrow(new IllegalArgumentException("Task not found"));
 
         mvc.perform(put("/api/tasks/999/complete")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"notes\":\"Test\"}"))
                 .andExpect(status().isNotFound());
 
-        verify(workTaskRepository, times(1)).findById(999L);
+        verify(workService, times(1)).completeTask(999L, "Test");
+    }
+
+    @Test
+    void whenCompleteConcurrentlyChangedTask_thenReturn409() throws Exception {
+        when(workService.completeTask(1L, "Test"))
+            .thenThrow(new ObjectOptimisticLockingFailureException(BookingRequest.class, 1L));
+
+        mvc.perform(put("/api/tasks/1/complete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"notes\":\"Test\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void whenCompleteTaskOfCancelledBookingOnFullDay_thenReturn429() throws Exception {
+        when(workService.completeTask(1L, "Test")).thenThrow(new DailyLimitReachedException("Booking limit reached"));
+
+        mvc.perform(put("/api/tasks/1/complete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"notes\":\"Test\"}"))
+                .andExpect(status().isTooManyRequests());
     }
 
     @Test
@@ -142,16 +219,46 @@ class WorkControllerTest {
         employee.setId(1L);
         WorkTaskRequest work = new WorkTaskRequest(booking, employee);
 
-        when(employeeRepository.findById(1L)).thenReturn(Optional.of(employee));
-        when(workTaskRepository.findByAssignedEmployee(employee)).thenReturn(List.of(work));
+        when(workService.findTasksByEmployee(1L, null, 50)).thenReturn(new WorkTaskPage(List.of(TaskSummary.of(work)), null));
 
         mvc.perform(get("/api/tasks/employee/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].status", is("ASSIGNED")));
 
-        verify(employeeRepository, times(1)).findById(1L);
-        verify(workTaskRepository, times(1)).findByAssignedEmployee(employee);
+        verify(workService, times(1)).findTasksByEmployee(1L, null, 50);
+    }
+
+    @Test
+    void whenGetTasksByUnknownEmployee_thenReturn404() throws Exception {
+        when(workService.findTasksByEmployee(999L, null, 50)).thenThrow(new IllegalArgumentException("Employee not found"));
+
+        mvc.perform(get("/api/tasks/employee/999"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenGetTasksPage_thenReturnNextCursorHeader() throws Exception {
+        BookingRequest booking = new BookingRequest("Task1", "Aveiro", LocalDateTime.now(), "T1");
+        EmployeeRequest employee = new EmployeeRequest("John", "john@example.com", "Aveiro", "COLLECTOR");
+        WorkTaskRequest work = new WorkTaskRequest(booking, employee);
+        work.setId(12L);
+
+        when(workService.findTasks(10L, 1)).thenReturn(new WorkTaskPage(List.of(TaskSummary.of(work)), 12L));
+
+        mvc.perform(get("/api/tasks").param("after", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "12"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(12)));
+    }
+
+    @Test
+    void whenGetTasksWithOversizedLimit_thenReturn400() throws Exception {
+        mvc.perform(get("/api/tasks").param("limit", "501"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(workService);
     }
 
     @Test
@@ -170,6 +277,16 @@ class WorkControllerTest {
         verify(workTaskRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void whenGetTaskWithCurrentETag_thenReturn304WithoutLoading() throws Exception {
+        when(workService.getTaskTag(1L)).thenReturn(Optional.of("1-0-1"));
+
+        mvc.perform(get("/api/tasks/1").header("If-None-Match", "\"1-0-1\""))
+                .andExpect(status().isNotModified());
+
+        verify(workTaskRepository, never()).findById(1L);
+    }
+
     @Test
     void whenGetNonExistentTask_thenReturn404() throws Exception {
         when(workTaskRepository.findById(999L)).thenReturn(Optional.empty());
@@ -191,22 +308,19 @@ class WorkControllerTest {
         WorkTaskRequest w2 = new WorkTaskRequest(booking2, employee2);
         List<WorkTaskRequest> allTasks = Arrays.asList(w1, w2);
 
-        when(workTaskRepository.findAll()).thenReturn(allTasks);
+        when(workService.findTasks(null, 50)).thenReturn(new WorkTaskPage(allTasks.stream().map(TaskSummary::of).toList(), null));
 
         mvc.perform(get("/api/tasks"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$", hasSize(2)));
 
-        verify(workTaskRepository, times(1)).findAll();
+        verify(workService, times(1)).findTasks(null, 50);
     }
 
     @Test
     void whenAssignTaskWithInvalidEmployee_thenReturn404() throws Exception {
-        BookingRequest booking = new BookingRequest("Test", "Aveiro", LocalDateTime.now(), "TOKEN123");
-        booking.setId(1L);
-
-        when(bookingService.getBookingByToken("TOKEN123")).thenReturn(Optional.of(booking));
-        when(employeeRepository.findById(999L)).thenReturn(Optional.empty());
+        when(workService.assignTask("TOKEN123", 999L)).thenThrow(new IllegalArgumentException("Employee not found"));
 
         mvc.perform(
                 post("/api/tasks")
@@ -215,7 +329,6 @@ class WorkControllerTest {
         )
                 .andExpect(status().isNotFound());
 
-        verify(bookingService, times(1)).getBookingByToken("TOKEN123");
-        verify(employeeRepository, times(1)).findById(999L);
+        verify(workService, times(1)).assignTask("TOKEN123", 999L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package zeromonos.load;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import zeromonos.data.BookingHistoryRepository;
+import zeromonos.data.BookingRepository;
+import zeromonos.data.BookingRequest;
+import zeromonos.data.EmployeeRepository;
+import zeromonos.data.EmployeeRequest;
+import zeromonos.data.WorkTaskRepository;
+import zeromonos.load.DatasetGenerator.DatasetSummary;
+import zeromonos.load.DatasetGenerator.SyntheticBooking;
+import zeromonos.service.BookingCapacityLedger;
+import zeromonos.service.BookingStatsRollup;
+import zeromonos.service.BookingTokenCache;
+import zeromonos.service.TaskLoadIndex;
+
+import javax.sql.DataSource;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times every repository query and the main read endpoints against synthetic datasets of growing size.
+ * Runs with the load profile; pick the sizes with -Ddataset.sizes (default 10000), for example
+ * mvn -Pload test -Dtest=DatasetBenchmarkIT -Ddataset.sizes=10000,1000000,10000000.
+ * One report per size is logged and written to target/load/dataset-&lt;size&gt;.txt.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class DatasetBenchmarkIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetBenchmarkIT.class);
+
+    private static final int ITERATIONS = Integer.getInteger("dataset.iterations", 200);
+    private static final int WARM_UP_ITERATIONS = 20;
+    // queries returning every row of a municipality or status load them all; above this size they are skipped
+    private static final long UNBOUNDED_MAX_ROWS = 1_000_000;
+    private static final int PAGE = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingHistoryRepository historyRepository;
+    @Autowired
+    private WorkTaskRepository workTaskRepository;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private BookingCapacityLedger capacityLedger;
+    @Autowired
+    private TaskLoadIndex loadIndex;
+    @Autowired
+    private BookingTokenCache tokenCache;
+    @Autowired
+    private BookingStatsRollup statsRollup;
+
+    @AfterEach
+    void cleanup() {
+        truncate();
+    }
+
+    @Test
+    void benchmarkDatasets() throws Exception {
+        long[] sizes = Arrays.stream(System.getProperty("dataset.sizes", "10000").split(","))
+            .map(String::trim).mapToLong(Long::parseLong).toArray();
+        for (long size : sizes) {
+            truncate();
+            DatasetGenerator generator = new DatasetGenerator(dataSource, size);
+            DatasetSummary summary = generator.generate(size);
+            // COPY bypasses BookingService, so the rollup is counted once from the loaded rows
+            statsRollup.rebuild();
+            capacityLedger.reconcile();
+            loadIndex.reconcile();
+
+            LatencyReport report = new LatencyReport();
+            run(generator, new LatencyReport(), WARM_UP_ITERATIONS);
+            run(generator, report, ITERATIONS);
+
+            String title = String.format("dataset %d: %d bookings, %d history rows, %d employees, %d tasks, loaded in %d s",
+                size, summary.bookings(), summary.history(), summary.employees(), summary.tasks(), summary.loadMillis() / 1000);
+            String table = report.format(title);
+            logger.info("\n{}", table);
+            Path directory = Files.createDirectories(Path.of("target", "load"));
+            Files.writeString(directory.resolve("dataset-" + size + ".txt"), table);
+            assertThat(report.failedRate()).as(table).isZero();
+        }
+    }
+
+    private void run(DatasetGenerator generator, LatencyReport report, int iterations) throws Exception {
+        LoadClient client = new LoadClient("http://localhost:" + port, report);
+        SplittableRandom random = new SplittableRandom(iterations);
+        boolean unbounded = generator.size() <= UNBOUNDED_MAX_ROWS;
+        for (int i = 0; i < iterations; i++) {
+            SyntheticBooking booking = generator.booking(random.nextLong(generator.size()));
+            BookingRequest reference = bookingRepository.getReferenceById(booking.id());
+            Long employeeId = booking.employeeId();
+            EmployeeRequest employee = employeeRepository.getReferenceById(employeeId);
+
+            time(report, "BookingRepository.findByToken", () -> bookingRepository.findByToken(booking.token()));
+            time(report, "BookingRepository.findVersionByToken", () -> bookingRepository.findVersionByToken(booking.token()));
+            time(report, "BookingRepository.countActiveOn", () ->
+                bookingRepository.countActiveOn(booking.municipality(), booking.date().toLocalDate()));
+            time(report, "BookingRepository.findUndispatched", () -> bookingRepository.findUndispatched(0, Limit.of(PAGE)));
+            time(report, "BookingHistoryRepository.findByBooking", () -> historyRepository.findByBooking(reference));
+            time(report, "BookingHistoryRepository.summarizeByBooking", () -> historyRepository.summarizeByBooking(booking.id()));
+            time(report, "WorkTaskRepository.findByBooking", () -> workTaskRepository.findByBooking(reference));
+            time(report, "WorkTaskRepository.findPage", () -> workTaskRepository.findPage(0, Limit.of(PAGE)));
+            time(report, "WorkTaskRepository.findPageByEmployee", () ->
+                workTaskRepository.findPageByEmployee(employeeId, 0, Limit.of(PAGE)));
+            time(report, "WorkTaskRepository.findByAssignedEmployee", () -> workTaskRepository.findByAssignedEmployee(employee));
+            time(report, "EmployeeRepository.findByMunicipality", () -> employeeRepository.findByMunicipality(booking.municipality()));
+            time(report, "BookingStatsRollup.find", () -> statsRollup.find(booking.municipality(), null,
+                booking.date().toLocalDate().minusDays(30), booking.date().toLocalDate()));
+            // whole-table aggregates and unbounded lists only every tenth iteration, they dominate the run otherwise
+            if (i % 10 == 0) {
+                time(report, "BookingRepository.countActiveByMunicipalityAndDay", () ->
+                    bookingRepository.countActiveByMunicipalityAndDay(LocalDate.now().atStartOfDay()));
+                time(report, "WorkTaskRepository.countOpenByEmployee", workTaskRepository::countOpenByEmployee);
+                time(report, "WorkTaskRepository.countOpenByMunicipality", workTaskRepository::countOpenByMunicipality);
+                if (unbounded) {
+                    time(report, "BookingRepository.findByMunicipality", () -> bookingRepository.findByMunicipality(booking.municipality()));
+                    time(report, "WorkTaskRepository.findByStatus", () -> workTaskRepository.findByStatus("ASSIGNED"));
+                }
+            }
+
+            // the token cache would otherwise answer most lookups after the first pass
+            tokenCache.invalidate(booking.token());
+            client.get("GET /api/bookings/{token}", "/api/bookings/" + booking.token(), 200);
+            client.get("GET /api/bookings/{token}/history", "/api/bookings/" + booking.token() + "/history", 200);
+            client.get("GET /api/bookings?municipality", "/api/bookings?municipality=" + encode(booking.municipality()), 200);
+            client.get("GET /api/bookings?municipality&status&from&to", "/api/bookings?municipality=" + encode(booking.municipality())
+                + "&status=RECEIVED&from=" + booking.date().toLocalDate() + "&to=" + booking.date().toLocalDate().plusDays(7), 200);
+            client.get("GET /api/bookings/stats?from&to", "/api/bookings/stats?from=" + booking.date().toLocalDate().minusDays(30)
+                + "&to=" + booking.date().toLocalDate(), 200);
+            client.get("GET /api/tasks", "/api/tasks", 200);
+            client.get("GET /api/tasks/employee/{id}", "/api/tasks/employee/" + employeeId, 200);
+            client.get("GET /api/employees/municipality/{municipality}", "/api/employees/municipality/" + encode(booking.municipality()), 200);
+        }
+    }
+
+    private void truncate() {
+        jdbcTemplate.execute("TRUNCATE work_task_request, booking_history_request, booking_request, employee_request, booking_daily_stats");
+        entityManagerFactory.getCache().evictAll();
+        capacityLedger.reconcile();
+        loadIndex.reconcile();
+    }
+
+    private static void time(LatencyReport report, String name, Query query) {
+        long start = System.nanoTime();
+        query.run();
+        report.record(name, System.nanoTime() - start, false);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private interface Query {
+        Object run();
+    }
+}
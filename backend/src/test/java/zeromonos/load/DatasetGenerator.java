@@ -0,0 +1,298 @@
+package zeromonos.load;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk-loads a synthetic dataset straight into the tables with PostgreSQL COPY, bypassing JPA.
+ * Municipalities are weighted by population, so a few large ones hold most of the rows as in production.
+ * Every booking is derived from its index and the seed alone, so the bookings, history and task passes
+ * stream without keeping anything in memory, and benchmarks can pick existing tokens with {@link #booking(long)}.
+ * Rows are appended after the current maximum ids and the id sequences are moved past them. The monthly
+ * partitions the dataset spans are created first.
+ */
+class DatasetGenerator {
+
+    // municipality and population in thousands
+    private static final Map<String, Integer> POPULATION = new LinkedHashMap<>();
+    static {
+        POPULATION.put("Lisboa", 545);
+        POPULATION.put("Sintra", 385);
+        POPULATION.put("Vila Nova de Gaia", 304);
+        POPULATION.put("Porto", 232);
+        POPULATION.put("Cascais", 214);
+        POPULATION.put("Loures", 201);
+        POPULATION.put("Braga", 193);
+        POPULATION.put("Almada", 177);
+        POPULATION.put("Matosinhos", 172);
+        POPULATION.put("Amadora", 171);
+        POPULATION.put("Oeiras", 171);
+        POPULATION.put("Seixal", 166);
+        POPULATION.put("Gondomar", 164);
+        POPULATION.put("Guimarães", 156);
+        POPULATION.put("Odivelas", 148);
+        POPULATION.put("Coimbra", 140);
+        POPULATION.put("Vila Franca de Xira", 137);
+        POPULATION.put("Maia", 135);
+        POPULATION.put("Leiria", 128);
+        POPULATION.put("Setúbal", 123);
+        POPULATION.put("Viseu", 99);
+        POPULATION.put("Aveiro", 80);
+        POPULATION.put("Faro", 67);
+        POPULATION.put("Évora", 53);
+    }
+
+    private static final int BOOKINGS_PER_EMPLOYEE = 2000;
+    private static final int PAST_DAYS = 365;
+    private static final int FUTURE_DAYS = 60;
+    private static final int FLUSH_BYTES = 1 << 20;
+
+    private final DataSource dataSource;
+    private final long seed;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+    private final String[] municipalities = POPULATION.keySet().toArray(String[]::new);
+    private final double[] cumulativeWeights = new double[municipalities.length];
+    private final Map<String, List<Long>> employees = new LinkedHashMap<>();
+    private long size;
+    private long bookingBase;
+
+    DatasetGenerator(DataSource dataSource, long seed) {
+        this.dataSource = dataSource;
+        this.seed = seed;
+        double total = POPULATION.values().stream().mapToInt(Integer::intValue).sum();
+        double cumulative = 0;
+        for (int i = 0; i < municipalities.length; i++) {
+            cumulative += POPULATION.get(municipalities[i]) / total;
+            cumulativeWeights[i] = cumulative;
+        }
+    }
+
+    // Loads the given number of bookings with their history, tasks and the employees working them
+    DatasetSummary generate(long bookings) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            PGConnection copy = connection.unwrap(PGConnection.class);
+            size = bookings;
+            bookingBase = nextId(connection, "booking_request");
+            createPartitions(connection);
+            long employeeRows = copyEmployees(connection, copy);
+            copyBookings(copy);
+            long historyRows = copyHistory(connection, copy);
+            long taskRows = copyTasks(connection, copy);
+            try (Statement statement = connection.createStatement()) {
+                // pooled sequences hand out a block below the returned value, so leave one block of headroom
+                statement.execute("select setval('booking_request_seq', (select max(id) from booking_request) + 50)");
+                statement.execute("select setval('booking_history_request_seq', (select max(id) from booking_history_request) + 50)");
+                statement.execute("select setval(pg_get_serial_sequence('employee_request', 'id'), (select max(id) from employee_request))");
+                statement.execute("select setval(pg_get_serial_sequence('work_task_request', 'id'), (select max(id) from work_task_request))");
+                statement.execute("analyze booking_request, booking_history_request, employee_request, work_task_request");
+            }
+            return new DatasetSummary(bookings, historyRows, employeeRows, taskRows, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // The booking generated for the given index; only valid after generate
+    SyntheticBooking booking(long index) {
+        SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+        long id = bookingBase + index;
+        String municipality = municipality(random.nextDouble());
+        LocalDateTime date = now.minusDays(PAST_DAYS).plusDays(random.nextInt(PAST_DAYS + FUTURE_DAYS))
+            .withHour(8 + random.nextInt(10));
+        int roll = random.nextInt(100);
+        String status;
+        if (date.isBefore(now)) {
+            status = roll < 85 ? "COMPLETED" : roll < 95 ? "CANCELLED" : "IN_PROGRESS";
+        } else {
+            status = roll < 60 ? "RECEIVED" : roll < 90 ? "ASSIGNED" : "CANCELLED";
+        }
+        LocalDateTime created = date.minusDays(1 + random.nextInt(30));
+        if (created.isAfter(now)) {
+            created = now;
+        }
+        List<Long> staff = employees.get(municipality);
+        Long employeeId = staff.get(random.nextInt(staff.size()));
+        return new SyntheticBooking(id, token(id), municipality, date, status, created, employeeId);
+    }
+
+    long size() {
+        return size;
+    }
+
+    List<String> municipalities() {
+        return List.of(municipalities);
+    }
+
+    List<Long> employees(String municipality) {
+        return employees.get(municipality);
+    }
+
+    // Past months have no partitions yet; without them every backfilled row would land in the default partition
+    private void createPartitions(Connection connection) throws SQLException {
+        LocalDateTime month = now.minusDays(PAST_DAYS + 31L).withDayOfMonth(1);
+        try (Statement statement = connection.createStatement()) {
+            for (; !month.isAfter(now.plusDays(FUTURE_DAYS)); month = month.plusMonths(1)) {
+                statement.execute("select ensure_month_partition('booking_request', '" + month.toLocalDate() + "')");
+                statement.execute("select ensure_month_partition('booking_history_request', '" + month.toLocalDate() + "')");
+            }
+        }
+    }
+
+    private long copyEmployees(Connection connection, PGConnection copy) throws SQLException {
+        long id = nextId(connection, "employee_request");
+        long rows = 0;
+        try (CopyStream out = new CopyStream(copy, "employee_request (id, name, email, municipality, role)")) {
+            for (int i = 0; i < municipalities.length; i++) {
+                String municipality = municipalities[i];
+                double share = cumulativeWeights[i] - (i == 0 ? 0 : cumulativeWeights[i - 1]);
+                long count = Math.max(2, Math.round(share * size / BOOKINGS_PER_EMPLOYEE));
+                List<Long> ids = new ArrayList<>();
+                for (long n = 0; n < count; n++, id++, rows++) {
+                    ids.add(id);
+                    String role = n == 0 ? "SUPERVISOR" : "COLLECTOR";
+                    out.row(id, "Employee " + id, "employee" + id + "@zeromonos.pt", municipality, role);
+                }
+                employees.put(municipality, ids);
+            }
+        }
+        return rows;
+    }
+
+    private void copyBookings(PGConnection copy) throws SQLException {
+        try (CopyStream out = new CopyStream(copy, "booking_request (id, token, description, municipality, date, status, version)")) {
+            for (long i = 0; i < size; i++) {
+                SyntheticBooking booking = booking(i);
+                out.row(booking.id(), booking.token(), "Synthetic booking " + booking.id(), booking.municipality(),
+                    booking.date(), booking.status(), booking.steps().size() - 1);
+            }
+        }
+    }
+
+    // One row per status the booking went through, an hour apart
+    private long copyHistory(Connection connection, PGConnection copy) throws SQLException {
+        long id = nextId(connection, "booking_history_request");
+        long first = id;
+        try (CopyStream out = new CopyStream(copy, "booking_history_request (id, status, timestamp, booking_id)")) {
+            for (long i = 0; i < size; i++) {
+                SyntheticBooking booking = booking(i);
+                List<String> steps = booking.steps();
+                for (int step = 0; step < steps.size(); step++) {
+                    out.row(id++, steps.get(step), booking.created().plusHours(step), booking.id());
+                }
+            }
+        }
+        return id - first;
+    }
+
+    private long copyTasks(Connection connection, PGConnection copy) throws SQLException {
+        long id = nextId(connection, "work_task_request");
+        long first = id;
+        try (CopyStream out = new CopyStream(copy,
+                "work_task_request (id, booking_id, employee_id, status, assigned_at, completed_at, notes, version)")) {
+            for (long i = 0; i < size; i++) {
+                SyntheticBooking booking = booking(i);
+                if (!booking.hasTask()) {
+                    continue;
+                }
+                boolean completed = "COMPLETED".equals(booking.status());
+                LocalDateTime assignedAt = booking.created().plusHours(1);
+                out.row(id++, booking.id(), booking.employeeId(), completed ? "COMPLETED" : "ASSIGNED", assignedAt,
+                    completed ? booking.created().plusHours(3) : null, completed ? "Collected" : null, completed ? 1 : 0);
+            }
+        }
+        return id - first;
+    }
+
+    private String municipality(double roll) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return municipalities[i];
+            }
+        }
+        return municipalities[municipalities.length - 1];
+    }
+
+    // Same shape as BookingService tokens; multiplying by an odd constant is a bijection on 32 bits, so ids never collide
+    private static String token(long id) {
+        return String.format("%08X", (id * 0x9E3779B1L) & 0xFFFFFFFFL);
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select coalesce(max(id), 0) + 1 from " + table)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    record DatasetSummary(long bookings, long history, long employees, long tasks, long loadMillis) {
+    }
+
+    record SyntheticBooking(long id, String token, String municipality, LocalDateTime date, String status,
+                            LocalDateTime created, Long employeeId) {
+
+        List<String> steps() {
+            return switch (status) {
+                case "CANCELLED" -> List.of("RECEIVED", "CANCELLED");
+                case "ASSIGNED" -> List.of("RECEIVED", "ASSIGNED");
+                case "IN_PROGRESS" -> List.of("RECEIVED", "ASSIGNED", "IN_PROGRESS");
+                case "COMPLETED" -> List.of("RECEIVED", "ASSIGNED", "IN_PROGRESS", "COMPLETED");
+                default -> List.of("RECEIVED");
+            };
+        }
+
+        boolean hasTask() {
+            return !"RECEIVED".equals(status) && !"CANCELLED".equals(status);
+        }
+    }
+
+    // Text-format COPY writer that sends rows to the server in 1 MB chunks
+    private static final class CopyStream implements AutoCloseable {
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_BYTES + 1024);
+
+        private CopyStream(PGConnection connection, String target) throws SQLException {
+            this.copyIn = connection.getCopyAPI().copyIn("copy " + target + " from stdin");
+        }
+
+        private void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append('\t');
+                }
+                buffer.append(values[i] == null ? "\\N" : values[i].toString());
+            }
+            buffer.append('\n');
+            if (buffer.length() >= FLUSH_BYTES) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package zeromonos.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms per endpoint plus the overall histogram, k6's http_req_duration.
+ * Values are recorded in microseconds with three significant digits.
+ */
+class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final ConcurrentHashMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Histogram overall = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder checksPassed = new LongAdder();
+    private final LongAdder checksFailed = new LongAdder();
+
+    void record(String endpoint, long nanos, boolean failed) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        stats.histogram.recordValue(micros);
+        overall.recordValue(micros);
+        requests.increment();
+        if (failed) {
+            stats.failures.increment();
+            failures.increment();
+        }
+    }
+
+    void check(boolean passed) {
+        (passed ? checksPassed : checksFailed).increment();
+    }
+
+    double p95Millis() {
+        return overall.getValueAtPercentile(95) / 1000.0;
+    }
+
+    double p95Millis(String endpoint) {
+        Endpoint stats = endpoints.get(endpoint);
+        return stats == null ? 0 : stats.histogram.getValueAtPercentile(95) / 1000.0;
+    }
+
+    Iterable<String> endpoints() {
+        return new TreeMap<>(endpoints).keySet();
+    }
+
+    // k6's http_req_failed
+    double failedRate() {
+        long total = requests.sum();
+        return total == 0 ? 0 : (double) failures.sum() / total;
+    }
+
+    // k6's checks
+    double checkRate() {
+        long total = checksPassed.sum() + checksFailed.sum();
+        return total == 0 ? 1 : (double) checksPassed.sum() / total;
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    String format(String title) {
+        int width = Math.max(34, endpoints.keySet().stream().mapToInt(String::length).max().orElse(0));
+        StringBuilder out = new StringBuilder(title).append('\n');
+        out.append(String.format("%-" + width + "s %8s %7s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "failed", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            line(out, width, entry.getKey(), entry.getValue().histogram, entry.getValue().failures.sum());
+        }
+        line(out, width, "all", overall, failures.sum());
+        out.append(String.format("failed rate %.4f, checks %.4f%n", failedRate(), checkRate()));
+        return out.toString();
+    }
+
+    private static void line(StringBuilder out, int width, String name, Histogram histogram, long failed) {
+        out.append(String.format("%-" + width + "s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", name, histogram.getTotalCount(), failed,
+            histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+            histogram.getValueAtPercentile(95) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getMaxValue() / 1000.0));
+    }
+
+    private static final class Endpoint {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder failures = new LongAdder();
+    }
+}
@@ -0,0 +1,76 @@
+package zeromonos.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * HTTP client for the load scenarios. Every call is timed into the {@link LatencyReport} under its endpoint
+ * name, counts as failed on a 4xx/5xx status or an I/O error like k6's http_req_failed, and counts as
+ * a passed check only when the expected status comes back.
+ */
+class LoadClient {
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final LatencyReport report;
+
+    LoadClient(String baseUrl, LatencyReport report) {
+        this.baseUrl = baseUrl;
+        this.report = report;
+    }
+
+    JsonNode get(String endpoint, String path, int expectedStatus) throws InterruptedException {
+        return send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET(), expectedStatus);
+    }
+
+    JsonNode post(String endpoint, String path, Object body, int expectedStatus) throws InterruptedException {
+        return send(endpoint, json(path).POST(bodyOf(body)), expectedStatus);
+    }
+
+    JsonNode put(String endpoint, String path, Object body, int expectedStatus) throws InterruptedException {
+        return send(endpoint, json(path).PUT(bodyOf(body)), expectedStatus);
+    }
+
+    private HttpRequest.Builder json(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher bodyOf(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder request, int expectedStatus) throws InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request.timeout(Duration.ofSeconds(60)).build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            report.record(endpoint, System.nanoTime() - start, true);
+            report.check(false);
+            return null;
+        }
+        report.record(endpoint, System.nanoTime() - start, response.statusCode() >= 400);
+        boolean passed = response.statusCode() == expectedStatus;
+        report.check(passed);
+        if (!passed || response.body().length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
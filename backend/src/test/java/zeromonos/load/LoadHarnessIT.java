@@ -0,0 +1,204 @@
+package zeromonos.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import zeromonos.service.BookingCapacityLedger;
+import zeromonos.service.TaskLoadIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The k6 scenarios from src/test/performance replayed in process against the application on a random port.
+ * Only runs with the load profile: mvn -Pload test. Set -Dload.time-scale=0.25 to shorten every stage and sleep.
+ * Reports are logged and written to target/load.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadHarnessIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadHarnessIT.class);
+
+    // thresholds from bookingload.js
+    private static final double P95_THRESHOLD_MS = 500;
+    private static final double FAILED_RATE_THRESHOLD = 0.02;
+    private static final double CHECK_RATE_THRESHOLD = 0.99;
+
+    private static final List<String> MUNICIPALITIES = List.of(
+        "Aveiro", "Lisboa", "Porto", "Coimbra", "Braga", "Faro", "Évora", "Viseu", "Leiria", "Setúbal");
+    private static final int BOOKING_DAYS = 60;
+    private static final int WARM_UP_ITERATIONS = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingCapacityLedger capacityLedger;
+    @Autowired
+    private TaskLoadIndex loadIndex;
+
+    private final LoadRunner runner = new LoadRunner(Double.parseDouble(System.getProperty("load.time-scale", "1")));
+    private final AtomicLong bookingSequence = new AtomicLong();
+    private final Map<String, Long> employees = new HashMap<>();
+
+    @BeforeEach
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("DELETE FROM work_task_request");
+        jdbcTemplate.execute("DELETE FROM employee_request");
+        jdbcTemplate.execute("DELETE FROM booking_history_request");
+        jdbcTemplate.execute("DELETE FROM booking_request");
+        capacityLedger.reconcile();
+        loadIndex.reconcile();
+    }
+
+    @Test
+    void bookingLoad() throws Exception {
+        // setup requests are timed separately so they do not count against the thresholds
+        LoadClient setup = client(new LatencyReport());
+        for (String municipality : MUNICIPALITIES) {
+            JsonNode employee = setup.post("POST /api/employees", "/api/employees", Map.of(
+                "name", "Collector " + municipality, "email", municipality + "@zeromonos.pt",
+                "municipality", municipality, "role", "COLLECTOR"), 201);
+            employees.put(municipality, employee.get("id").asLong());
+        }
+        warmUp(setup);
+        LatencyReport report = new LatencyReport();
+        LoadClient client = client(report);
+
+        // every fifth virtual user works the staff flow, the others follow bookingload.js
+        runner.run(LoadProfile.bookingLoad(), (vu, iteration) -> {
+            if (vu % 5 == 0) {
+                staffIteration(client);
+            } else {
+                citizenIteration(client);
+            }
+        });
+
+        String summary = publish("bookingload", report);
+        assertThat(report.p95Millis()).as(summary).isLessThan(P95_THRESHOLD_MS);
+        for (String endpoint : report.endpoints()) {
+            assertThat(report.p95Millis(endpoint)).as(endpoint + " p95\n" + summary).isLessThan(P95_THRESHOLD_MS);
+        }
+        assertThat(report.failedRate()).as(summary).isLessThan(FAILED_RATE_THRESHOLD);
+        assertThat(report.checkRate()).as(summary).isGreaterThan(CHECK_RATE_THRESHOLD);
+    }
+
+    @Test
+    void spike() throws Exception {
+        LatencyReport report = new LatencyReport();
+        LoadClient client = client(report);
+
+        runner.run(LoadProfile.spike(), (vu, iteration) -> {
+            long start = System.nanoTime();
+            client.get("GET /api/bookings", "/api/bookings", 200);
+            report.check(System.nanoTime() - start < 1_000_000_000L);
+            runner.sleep(1);
+        });
+
+        String summary = publish("spike", report);
+        assertThat(report.requests()).as(summary).isPositive();
+    }
+
+    @Test
+    void stress() throws Exception {
+        LatencyReport report = new LatencyReport();
+        LoadClient client = client(report);
+
+        runner.run(LoadProfile.stress(), (vu, iteration) -> client.get("GET /api/bookings", "/api/bookings", 200));
+
+        String summary = publish("stress", report);
+        assertThat(report.requests()).as(summary).isPositive();
+    }
+
+    // A cold JVM and connection pool would dominate a shortened run, and k6 would normally hit a warm server
+    private void warmUp(LoadClient setup) throws InterruptedException {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            JsonNode booking = setup.post("POST /api/bookings", "/api/bookings", nextBooking("Warm-up booking"), 201);
+            setup.get("GET /api/bookings/{token}", "/api/bookings/" + booking.get("token").asText(), 200);
+            setup.get("GET /api/bookings", "/api/bookings", 200);
+            if (i % 5 == 0) {
+                String token = booking.get("token").asText();
+                JsonNode task = setup.post("POST /api/tasks", "/api/tasks",
+                    Map.of("bookingToken", token, "employeeId", employees.get(booking.get("municipality").asText())), 201);
+                setup.put("PUT /api/bookings/{token}/status", "/api/bookings/" + token + "/status",
+                    Map.of("status", "IN_PROGRESS"), 200);
+                setup.put("PUT /api/tasks/{id}/complete", "/api/tasks/" + task.get("id").asLong() + "/complete",
+                    Map.of("notes", "Collected"), 200);
+            }
+        }
+    }
+
+    private void citizenIteration(LoadClient client) throws InterruptedException {
+        JsonNode booking = client.post("POST /api/bookings", "/api/bookings", nextBooking("Load test booking"), 201);
+        runner.sleep(1);
+        if (booking != null) {
+            client.get("GET /api/bookings/{token}", "/api/bookings/" + booking.get("token").asText(), 200);
+        }
+        runner.sleep(1);
+        client.get("GET /api/bookings", "/api/bookings", 200);
+        runner.sleep(1);
+    }
+
+    // Assign task, move the booking to IN_PROGRESS, complete the task
+    private void staffIteration(LoadClient client) throws InterruptedException {
+        Map<String, String> request = nextBooking("Staff flow booking");
+        JsonNode booking = client.post("POST /api/bookings", "/api/bookings", request, 201);
+        if (booking == null) {
+            runner.sleep(1);
+            return;
+        }
+        String token = booking.get("token").asText();
+        JsonNode task = client.post("POST /api/tasks", "/api/tasks",
+            Map.of("bookingToken", token, "employeeId", employees.get(request.get("municipality"))), 201);
+        runner.sleep(1);
+        client.put("PUT /api/bookings/{token}/status", "/api/bookings/" + token + "/status", Map.of("status", "IN_PROGRESS"), 200);
+        runner.sleep(1);
+        if (task != null) {
+            client.put("PUT /api/tasks/{id}/complete", "/api/tasks/" + task.get("id").asLong() + "/complete",
+                Map.of("notes", "Collected"), 200);
+        }
+        runner.sleep(1);
+    }
+
+    // Spreads bookings over municipalities and days so the daily limit is not what the run measures
+    private Map<String, String> nextBooking(String description) {
+        long sequence = bookingSequence.getAndIncrement();
+        String municipality = MUNICIPALITIES.get((int) (sequence % MUNICIPALITIES.size()));
+        LocalDate day = LocalDate.now().plusDays(1 + (sequence / MUNICIPALITIES.size()) % BOOKING_DAYS);
+        return Map.of("description", description + " " + sequence, "municipality", municipality,
+            "date", day.atTime(10, 0).toString());
+    }
+
+    private LoadClient client(LatencyReport report) {
+        return new LoadClient("http://localhost:" + port, report);
+    }
+
+    private static String publish(String name, LatencyReport report) throws IOException {
+        String summary = report.format(name);
+        logger.info("\n{}", summary);
+        Path directory = Files.createDirectories(Path.of("target", "load"));
+        Files.writeString(directory.resolve(name + ".txt"), summary);
+        return summary;
+    }
+}
@@ -0,0 +1,63 @@
+package zeromonos.load;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Ramping virtual-user stages, the same shape as the k6 options in src/test/performance.
+ * Within a stage the number of virtual users moves linearly from the previous target to the stage target.
+ */
+record LoadProfile(String name, List<Stage> stages) {
+
+    record Stage(Duration duration, int target) {
+    }
+
+    // bookingload.js
+    static LoadProfile bookingLoad() {
+        return new LoadProfile("bookingload", List.of(
+            new Stage(Duration.ofSeconds(5), 20),
+            new Stage(Duration.ofSeconds(30), 20),
+            new Stage(Duration.ofSeconds(5), 0)));
+    }
+
+    // spiketest.js
+    static LoadProfile spike() {
+        return new LoadProfile("spike", List.of(
+            new Stage(Duration.ofSeconds(10), 10),
+            new Stage(Duration.ofSeconds(10), 100),
+            new Stage(Duration.ofSeconds(10), 10)));
+    }
+
+    // stresstest.js
+    static LoadProfile stress() {
+        return new LoadProfile("stress", List.of(
+            new Stage(Duration.ofSeconds(30), 50),
+            new Stage(Duration.ofMinutes(1), 50),
+            new Stage(Duration.ofSeconds(30), 100),
+            new Stage(Duration.ofMinutes(1), 100),
+            new Stage(Duration.ofSeconds(30), 0)));
+    }
+
+    int maxTarget() {
+        return stages.stream().mapToInt(Stage::target).max().orElse(0);
+    }
+
+    Duration duration() {
+        return stages.stream().map(Stage::duration).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    // Virtual users that should be running the given time after the start
+    int targetAt(Duration elapsed) {
+        long remaining = elapsed.toMillis();
+        int previous = 0;
+        for (Stage stage : stages) {
+            long length = stage.duration().toMillis();
+            if (remaining < length) {
+                return (int) Math.round(previous + (stage.target() - previous) * (double) remaining / length);
+            }
+            remaining -= length;
+            previous = stage.target();
+        }
+        return 0;
+    }
+}
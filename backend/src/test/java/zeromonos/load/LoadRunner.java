@@ -0,0 +1,73 @@
+package zeromonos.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a {@link LoadProfile} the way k6's ramping-vus executor does: every virtual user loops over the
+ * scenario, and users above the current target wait until the ramp reaches them again.
+ * Stage durations and scenario sleeps are multiplied by the time scale, so runs can be shortened.
+ */
+class LoadRunner {
+
+    interface Iteration {
+        void run(int vu, long iteration) throws Exception;
+    }
+
+    private final double timeScale;
+
+    LoadRunner(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    // k6's sleep()
+    void sleep(double seconds) throws InterruptedException {
+        Thread.sleep(Math.round(seconds * 1000 * timeScale));
+    }
+
+    void run(LoadProfile profile, Iteration iteration) throws InterruptedException {
+        AtomicInteger target = new AtomicInteger();
+        List<Thread> users = new ArrayList<>();
+        for (int i = 0; i < profile.maxTarget(); i++) {
+            int vu = i + 1;
+            Thread user = new Thread(() -> loop(vu, target, iteration), profile.name() + "-vu-" + vu);
+            user.setDaemon(true);
+            users.add(user);
+            user.start();
+        }
+        long start = System.nanoTime();
+        long end = start + Math.round(profile.duration().toNanos() * timeScale);
+        while (System.nanoTime() < end) {
+            long elapsed = Math.round((System.nanoTime() - start) / timeScale);
+            target.set(profile.targetAt(Duration.ofNanos(elapsed)));
+            Thread.sleep(100);
+        }
+        target.set(-1);
+        for (Thread user : users) {
+            user.join(Duration.ofSeconds(30).toMillis());
+        }
+    }
+
+    private static void loop(int vu, AtomicInteger target, Iteration iteration) {
+        long count = 0;
+        try {
+            while (true) {
+                int current = target.get();
+                if (current < 0) {
+                    return;
+                }
+                if (vu > current) {
+                    Thread.sleep(20);
+                    continue;
+                }
+                iteration.run(vu, count++);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IllegalStateException("Virtual user " + vu + " failed", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package zeromonos.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Migrates a schema shaped like the one ddl-auto=update created before migrations were introduced
+@SpringBootTest
+class BaselineMigrationIT {
+
+    private static final String SCHEMA = "legacy_baseline";
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createLegacySchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("create table " + SCHEMA + ".booking_request (id bigint generated by default as identity, "
+            + "date timestamp(6), description varchar(255), municipality varchar(255), status varchar(255), "
+            + "token varchar(255), primary key (id))");
+        jdbcTemplate.execute("create table " + SCHEMA + ".booking_history_request (id bigint generated by default as identity, "
+            + "status varchar(255), timestamp timestamp(6), booking_id bigint, primary key (id))");
+        jdbcTemplate.execute("create table " + SCHEMA + ".employee_request (id bigint generated by default as identity, "
+            + "email varchar(255), municipality varchar(255), name varchar(255), role varchar(255), primary key (id))");
+        jdbcTemplate.execute("create table " + SCHEMA + ".work_task_request (id bigint generated by default as identity, "
+            + "assigned_at timestamp(6), completed_at timestamp(6), notes varchar(255), status varchar(255), "
+            + "booking_id bigint unique, employee_id bigint, primary key (id))");
+        jdbcTemplate.execute("alter table " + SCHEMA + ".booking_history_request add constraint fk_legacy_history "
+            + "foreign key (booking_id) references " + SCHEMA + ".booking_request");
+        jdbcTemplate.execute("alter table " + SCHEMA + ".work_task_request add constraint fk_legacy_task_booking "
+            + "foreign key (booking_id) references " + SCHEMA + ".booking_request");
+        jdbcTemplate.execute("alter table " + SCHEMA + ".work_task_request add constraint fk_legacy_task_employee "
+            + "foreign key (employee_id) references " + SCHEMA + ".employee_request");
+
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("insert into " + SCHEMA + ".booking_request (date, description, municipality, status, token) "
+                + "values (now(), 'Legacy', 'Tomar', 'RECEIVED', ?)", "LEGACY-" + i);
+        }
+        jdbcTemplate.update("insert into " + SCHEMA + ".booking_history_request (status, timestamp, booking_id) "
+            + "select 'RECEIVED', now(), id from " + SCHEMA + ".booking_request");
+        jdbcTemplate.update("insert into " + SCHEMA + ".employee_request (name, email, municipality, role) "
+            + "values ('Ana', 'ana@example.com', 'Tomar', 'DRIVER')");
+        jdbcTemplate.update("insert into " + SCHEMA + ".work_task_request (assigned_at, status, booking_id, employee_id) "
+            + "select now(), 'ASSIGNED', min(b.id), min(e.id) from " + SCHEMA + ".booking_request b, " + SCHEMA + ".employee_request e");
+    }
+
+    @AfterEach
+    void dropLegacySchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void testLegacySchemaMigratesToLatest() {
+        Flyway flyway = Flyway.configure()
+            .dataSource(dataSource)
+            .schemas(SCHEMA)
+            .baselineOnMigrate(true)
+            .baselineVersion("0")
+            .load();
+
+        flyway.migrate();
+
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(count("booking_request")).isEqualTo(3);
+        assertThat(count("booking_history_request")).isEqualTo(3);
+        assertThat(count("work_task_request")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from " + SCHEMA + ".booking_request where version = 0", Long.class))
+            .isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("select version from " + SCHEMA + ".work_task_request", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from pg_constraint where conname = 'uk_task_booking' "
+            + "and connamespace = ?::regnamespace", Long.class, SCHEMA)).isEqualTo(1);
+    }
+
+    @Test
+    void testSequencesStartAfterLegacyIds() {
+        long bookingId = jdbcTemplate.queryForObject("select max(id) from " + SCHEMA + ".booking_request", Long.class);
+        long historyId = jdbcTemplate.queryForObject("select max(id) from " + SCHEMA + ".booking_history_request", Long.class);
+
+        Flyway.configure().dataSource(dataSource).schemas(SCHEMA).baselineOnMigrate(true).baselineVersion("0").load().migrate();
+
+        // Hibernate's pooled optimizer hands out the 50 ids up to the value nextval returns
+        assertThat(jdbcTemplate.queryForObject("select nextval('" + SCHEMA + ".booking_request_seq')", Long.class) - 49)
+            .isGreaterThan(bookingId);
+        assertThat(jdbcTemplate.queryForObject("select nextval('" + SCHEMA + ".booking_history_request_seq')", Long.class) - 49)
+            .isGreaterThan(historyId);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + SCHEMA + "." + table, Long.class);
+    }
+}
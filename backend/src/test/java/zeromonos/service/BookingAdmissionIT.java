@@ -0,0 +1,126 @@
+package zeromonos.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import zeromonos.data.BookingHistoryRepository;
+import zeromonos.data.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookingAdmissionIT {
+
+    private static final int REQUESTS = 400;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingCapacityLedger capacityLedger;
+    @Autowired
+    private BookingRepository repository;
+    @Autowired
+    private BookingHistoryRepository historyRepository;
+    @Autowired
+    private BookingHistoryWriter historyWriter;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingArchive archive;
+    @Autowired
+    private BookingStatsRollup statsRollup;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("DELETE FROM work_task_request");
+        jdbcTemplate.execute("DELETE FROM booking_history_request");
+        jdbcTemplate.execute("DELETE FROM booking_request");
+    }
+
+    @Test
+    void testRolledBackBookingLeavesNoTrace() {
+        LocalDateTime date = LocalDateTime.now().plusDays(3);
+        List<String> tokens = new ArrayList<>();
+
+        // the booking itself succeeds; the caller's transaction rolls back after it returned
+        transactionTemplate.executeWithoutResult(status -> {
+            tokens.add(bookingService.createBooking("Rolled back", "Mértola", date).getToken());
+            tokens.add(bookingService.createBookings(List.of(new BookingDraft("Rolled back", "Mértola", date)))
+                .get(0).token());
+            status.setRollbackOnly();
+        });
+
+        assertThat(capacityLedger.count("Mértola", date.toLocalDate())).isZero();
+        for (String token : tokens) {
+            assertThat(bookingService.getBookingByToken(token)).isEmpty();
+        }
+    }
+
+    @Test
+    void testDailyLimitHoldsUnderConcurrentRequests() throws Exception {
+        LocalDateTime date = LocalDateTime.now().plusDays(3);
+        // a second service with its own empty ledger stands in for another application instance
+        BookingService otherInstance = new BookingService(repository, historyRepository,
+            new BookingCapacityLedger(repository), new BookingTokenCache(100, Duration.ofMinutes(5)), historyWriter, archive, statsRollup, eventPublisher, meterRegistry);
+        String[] municipalities = {"Mértola", "Odemira"};
+
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            String municipality = municipalities[i % municipalities.length];
+            boolean local = i % 4 < 2;
+            Callable<Boolean> request = () -> {
+                start.await();
+                try {
+                    if (local) {
+                        bookingService.createBooking("Stress", municipality, date);
+                    } else {
+                        transactionTemplate.executeWithoutResult(status -> otherInstance.createBooking("Stress", municipality, date));
+                    }
+                    return true;
+                } catch (DailyLimitReachedException e) {
+                    return false;
+                }
+            };
+            results.add(executor.submit(request));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+
+        long admitted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                admitted++;
+            }
+        }
+        assertThat(admitted).isEqualTo(BookingCapacityLedger.DAILY_LIMIT * municipalities.length);
+        for (String municipality : municipalities) {
+            assertThat(repository.countActiveOn(municipality, date.toLocalDate())).isEqualTo(BookingCapacityLedger.DAILY_LIMIT);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package zeromonos.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import zeromonos.data.BookingHistoryRequest;
+import zeromonos.data.BookingHistoryRepository;
+import zeromonos.data.BookingRepository;
+import zeromonos.data.BookingRequest;
+import zeromonos.data.EmployeeRepository;
+import zeromonos.data.EmployeeRequest;
+import zeromonos.data.WorkTaskRepository;
+import zeromonos.data.WorkTaskRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class BookingArchiverIT {
+
+    private static final LocalDateTime OLD = LocalDateTime.now().minusYears(3);
+
+    @Autowired
+    private BookingArchiver archiver;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingPartitionMaintenance partitionMaintenance;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingHistoryRepository historyRepository;
+    @Autowired
+    private WorkTaskRepository workTaskRepository;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private BookingExportService exportService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("DELETE FROM work_task_request");
+        jdbcTemplate.execute("DELETE FROM employee_request");
+        jdbcTemplate.execute("DELETE FROM booking_history_request");
+        jdbcTemplate.execute("DELETE FROM booking_request");
+        jdbcTemplate.execute("DELETE FROM work_task_archive");
+        jdbcTemplate.execute("DELETE FROM booking_history_archive");
+        jdbcTemplate.execute("DELETE FROM booking_archive");
+    }
+
+    @Test
+    void testTerminalBookingsMoveToArchiveWithHistoryAndTask() {
+        EmployeeRequest employee = employeeRepository.save(new EmployeeRequest("Ana", "ana@example.com", "Tomar", "COLLECTOR"));
+        BookingRequest completed = booking("OLDDONE1", "COMPLETED", OLD);
+        WorkTaskRequest task = new WorkTaskRequest(completed, employee);
+        task.setStatus("COMPLETED");
+        workTaskRepository.save(task);
+        BookingRequest cancelled = booking("OLDCANC1", "CANCELLED", OLD);
+        BookingRequest open = booking("OLDOPEN1", "RECEIVED", OLD);
+        BookingRequest recent = booking("NEWDONE1", "COMPLETED", LocalDateTime.now().minusDays(1));
+
+        int archived = archiver.archiveBefore(LocalDateTime.now().minusDays(90));
+
+        assertThat(archived).isEqualTo(2);
+        assertThat(bookingRepository.findByToken(completed.getToken())).isEmpty();
+        assertThat(bookingRepository.findByToken(cancelled.getToken())).isEmpty();
+        assertThat(bookingRepository.findByToken(open.getToken())).isPresent();
+        assertThat(bookingRepository.findByToken(recent.getToken())).isPresent();
+        assertThat(workTaskRepository.count()).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from booking_history_archive", Long.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from work_task_archive", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void testTokenLookupFallsBackToArchive() {
+        BookingRequest completed = booking("OLDDONE2", "COMPLETED", OLD);
+        bookingService.getBookingByToken(completed.getToken());
+        String tag = bookingService.getHistoryTag(completed.getToken()).orElseThrow();
+
+        archiver.archiveBefore(LocalDateTime.now().minusDays(90));
+
+        Optional<BookingRequest> found = bookingService.getBookingByToken(completed.getToken());
+        assertThat(found).isPresent();
+        assertThat(found.get().isArchived()).isTrue();
+        assertThat(found.get().getStatus()).isEqualTo("COMPLETED");
+        List<BookingHistoryRequest> history = bookingService.getStatusHistory(found.get());
+        assertThat(history).extracting(BookingHistoryRequest::getStatus).containsExactly("COMPLETED");
+        assertThat(bookingService.getHistoryTag(completed.getToken())).contains(tag);
+
+        found.get().setStatus("CANCELLED");
+        assertThatThrownBy(() -> bookingService.save(found.get())).isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void testStatusChangeWithoutHistoryYetKeepsBookingLive() {
+        BookingRequest booking = booking("OLDLATE1", "COMPLETED", OLD);
+
+        // committed, but its history row is still waiting to be enqueued after commit
+        BookingRequest changed = bookingRepository.findByToken(booking.getToken()).orElseThrow();
+        changed.setStatus("CANCELLED");
+        bookingRepository.save(changed);
+
+        assertThat(archiver.archiveBefore(LocalDateTime.now().minusDays(90))).isZero();
+        assertThat(bookingRepository.findByToken(booking.getToken())).isPresent();
+    }
+
+    @Test
+    void testExportIncludesArchivedBookings() throws Exception {
+        booking("OLDDONE4", "COMPLETED", OLD);
+        booking("OLDOPEN4", "RECEIVED", OLD);
+        archiver.archiveBefore(LocalDateTime.now().minusDays(90));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(BookingExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains(",OLDDONE4,", ",OLDOPEN4,");
+    }
+
+    @Test
+    void testEmptiedMonthIsDropped() {
+        YearMonth month = YearMonth.from(OLD);
+        partitionMaintenance.ensureMonth("booking_request", month);
+        booking("OLDDONE3", "COMPLETED", OLD);
+        String partition = String.format("booking_request_y%04dm%02d", month.getYear(), month.getMonthValue());
+
+        archiver.archiveBefore(LocalDateTime.now().minusDays(90));
+
+        assertThat(jdbcTemplate.queryForObject("select to_regclass(?)::text", String.class, partition)).isNull();
+    }
+
+    private BookingRequest booking(String token, String status, LocalDateTime date) {
+        BookingRequest booking = new BookingRequest("Archive test", "Tomar", date, token);
+        booking.setStatus(status);
+        booking.setStatusChangedAt(date);
+        BookingRequest saved = bookingRepository.save(booking);
+        historyRepository.save(new BookingHistoryRequest(saved, status, date));
+        return saved;
+    }
+}
@@ -0,0 +1,151 @@
+package zeromonos.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import zeromonos.data.BookingRepository;
+import zeromonos.data.DailyBookingCount;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingCapacityLedgerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 1);
+
+    @Mock
+    private BookingRepository repository;
+
+    private BookingCapacityLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new BookingCapacityLedger(repository);
+    }
+
+    @Test
+    void testWarmUpLoadsAggregateCounts() {
+        when(repository.countActiveByMunicipalityAndDay(any())).thenReturn(List.of(row("Aveiro", DAY, 3), row("Porto", DAY, 5)));
+
+        ledger.warmUp();
+
+        assertThat(ledger.count("Aveiro", DAY)).isEqualTo(3);
+        assertThat(ledger.count("Porto", DAY)).isEqualTo(5);
+        assertThat(ledger.count("Lisboa", DAY)).isZero();
+    }
+
+    @Test
+    void testAcquireStopsAtDailyLimit() {
+        when(repository.countActiveOn("Aveiro", DAY)).thenReturn(5L);
+
+        for (int i = 0; i < BookingCapacityLedger.DAILY_LIMIT; i++) {
+            assertThat(ledger.tryAcquire("Aveiro", DAY)).isTrue();
+        }
+
+        assertThat(ledger.tryAcquire("Aveiro", DAY)).isFalse();
+        assertThat(ledger.count("Aveiro", DAY)).isEqualTo(5);
+    }
+
+    @Test
+    void testRemainingNeverGoesBelowZero() {
+        ledger.add("Aveiro", DAY, 3);
+        ledger.add("Porto", DAY, BookingCapacityLedger.DAILY_LIMIT + 1);
+
+        assertThat(ledger.remaining("Aveiro", DAY)).isEqualTo(2);
+        assertThat(ledger.remaining("Porto", DAY)).isZero();
+        assertThat(ledger.remaining("Lisboa", DAY)).isEqualTo(BookingCapacityLedger.DAILY_LIMIT);
+    }
+
+    @Test
+    void testFullCounterIsRecheckedAgainstDatabase() {
+        for (int i = 0; i < BookingCapacityLedger.DAILY_LIMIT; i++) {
+            ledger.tryAcquire("Aveiro", DAY);
+        }
+        when(repository.countActiveOn("Aveiro", DAY)).thenReturn(2L);
+
+        assertThat(ledger.tryAcquire("Aveiro", DAY)).isTrue();
+        assertThat(ledger.count("Aveiro", DAY)).isEqualTo(3);
+    }
+
+    @Test
+    void testStatusTransitionsAdjustCounter() {
+        ledger.tryAcquire("Aveiro", DAY);
+        ledger.tryAcquire("Aveiro", DAY);
+
+        ledger.onStatusChange("Aveiro", DAY, "RECEIVED", "CANCELLED");
+        assertThat(ledger.count("Aveiro", DAY)).isEqualTo(1);
+
+        ledger.onStatusChange("Aveiro", DAY, "CANCELLED", "RECEIVED");
+        assertThat(ledger.count("Aveiro", DAY)).isEqualTo(2);
+
+        ledger.onStatusChange("Aveiro", DAY, "RECEIVED", "IN_PROGRESS");
+        assertThat(ledger.count("Aveiro", DAY)).isEqualTo(2);
+    }
+
+    @Test
+    void testReconcileResetsSlotsMissingFromDatabase() {
+        ledger.tryAcquire("Aveiro", DAY);
+        when(repository.countActiveByMunicipalityAndDay(any())).thenReturn(List.of(row("Porto", DAY, 1)));
+
+        ledger.reconcile();
+
+        assertThat(ledger.count("Aveiro", DAY)).isZero();
+        assertThat(ledger.count("Porto", DAY)).isEqualTo(1);
+    }
+
+    @Test
+    void testReconcileReadsFromTodayAndDropsPastSlots() {
+        LocalDate today = LocalDate.now();
+        ledger.add("Aveiro", today.minusDays(3), 2);
+        ledger.add("Aveiro", today, 1);
+        when(repository.countActiveByMunicipalityAndDay(today.atStartOfDay())).thenReturn(List.of(row("Aveiro", today, 4)));
+
+        ledger.reconcile();
+
+        assertThat(ledger.count("Aveiro", today.minusDays(3))).isZero();
+        assertThat(ledger.count("Aveiro", today)).isEqualTo(4);
+    }
+
+    @Test
+    void testConcurrentAcquireNeverExceedsLimit() throws InterruptedException {
+        when(repository.countActiveOn("Aveiro", DAY)).thenReturn(5L);
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+
+        for (int i = 0; i < 500; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (ledger.tryAcquire("Aveiro", DAY)) {
+                    admitted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(admitted.get()).isEqualTo(BookingCapacityLedger.DAILY_LIMIT);
+    }
+
+    private static DailyBookingCount row(String municipality, LocalDate day, long total) {
+        return new DailyBookingCount() {
+            public String getMunicipality() { return municipality; }
+            public LocalDate getDay() { return day; }
+            public long getTotal() { return total; }
+        };
+    }
+}
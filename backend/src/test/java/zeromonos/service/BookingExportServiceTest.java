@@ -0,0 +1,25 @@
+package zeromonos.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingExportServiceTest {
+
+    @Test
+    void testCsvLeavesPlainValuesUntouched() {
+        assertThat(BookingExportService.csv("Aveiro")).isEqualTo("Aveiro");
+    }
+
+    @Test
+    void testCsvQuotesSeparatorsAndEscapesQuotes() {
+        assertThat(BookingExportService.csv("Sofa, two chairs")).isEqualTo("\"Sofa, two chairs\"");
+        assertThat(BookingExportService.csv("the \"big\" one")).isEqualTo("\"the \"\"big\"\" one\"");
+        assertThat(BookingExportService.csv("line\nbreak")).isEqualTo("\"line\nbreak\"");
+    }
+
+    @Test
+    void testCsvWritesNullAsEmpty() {
+        assertThat(BookingExportService.csv(null)).isEmpty();
+    }
+}
@@ -0,0 +1,128 @@
+package zeromonos.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import zeromonos.data.BookingHistoryRepository;
+import zeromonos.data.BookingHistoryRequest;
+import zeromonos.data.BookingRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingHistoryWriterTest {
+
+    @Mock
+    private BookingHistoryRepository historyRepository;
+
+    private BookingHistoryWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null && writer.isRunning()) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void testRowsAreBatchedUntilFlush() {
+        writer = new BookingHistoryWriter(historyRepository, 100, 10, 60_000, 50);
+        writer.start();
+
+        for (int i = 0; i < 5; i++) {
+            writer.enqueue(history("RECEIVED"));
+        }
+        assertThat(writer.hasPending()).isTrue();
+        verify(historyRepository, never()).saveAll(anyList());
+
+        writer.flush();
+
+        verify(historyRepository, times(1)).saveAll(argThat(rows -> ((List<?>) rows).size() == 5));
+        assertThat(writer.hasPending()).isFalse();
+    }
+
+    @Test
+    void testFullBatchIsWrittenByWorker() {
+        writer = new BookingHistoryWriter(historyRepository, 100, 3, 60_000, 50);
+        writer.start();
+
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue(history("IN_PROGRESS"));
+        }
+
+        verify(historyRepository, timeout(2000).times(1)).saveAll(argThat(rows -> ((List<?>) rows).size() == 3));
+    }
+
+    @Test
+    void testFullQueueFallsBackToCallerThread() {
+        writer = new BookingHistoryWriter(historyRepository, 1, 10, 60_000, 1);
+        writer.start();
+
+        writer.enqueue(history("RECEIVED"));
+        writer.enqueue(history("CANCELLED"));
+
+        verify(historyRepository, times(2)).saveAll(argThat(rows -> ((List<?>) rows).size() == 1));
+        assertThat(writer.hasPending()).isFalse();
+    }
+
+    @Test
+    void testStopFlushesQueuedRows() {
+        writer = new BookingHistoryWriter(historyRepository, 100, 10, 60_000, 50);
+        writer.start();
+        writer.enqueue(history("COMPLETED"));
+
+        writer.stop();
+
+        verify(historyRepository, times(1)).saveAll(anyList());
+        assertThat(writer.isRunning()).isFalse();
+    }
+
+    @Test
+    void testFailedBatchIsRetriedRowByRow() {
+        writer = new BookingHistoryWriter(historyRepository, 100, 10, 60_000, 50);
+        writer.start();
+        when(historyRepository.saveAll(anyList())).thenThrow(new IllegalStateException("constraint"));
+        writer.enqueue(history("RECEIVED"));
+        writer.enqueue(history("ASSIGNED"));
+
+        writer.flush();
+
+        verify(historyRepository, times(2)).save(any(BookingHistoryRequest.class));
+        assertThat(writer.hasPending()).isFalse();
+    }
+
+    @Test
+    void testPendingRowsAreTrackedPerBooking() {
+        writer = new BookingHistoryWriter(historyRepository, 100, 10, 60_000, 50);
+        writer.start();
+
+        writer.enqueue(history(1L, "RECEIVED"));
+        writer.enqueue(history(1L, "ASSIGNED"));
+
+        assertThat(writer.hasPending(1L)).isTrue();
+        assertThat(writer.hasPending(2L)).isFalse();
+
+        writer.flush();
+
+        assertThat(writer.hasPending(1L)).isFalse();
+    }
+
+    private static BookingHistoryRequest history(String status) {
+        return history(null, status);
+    }
+
+    private static BookingHistoryRequest history(Long bookingId, String status) {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
+        booking.setId(bookingId);
+        return new BookingHistoryRequest(booking, status, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,81 @@
+package zeromonos.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import zeromonos.data.BookingRequest;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookingPartitionIT {
+
+    // far enough ahead that maintenance never creates it on its own
+    private static final YearMonth FAR_MONTH = YearMonth.now().plusYears(5);
+
+    @Autowired
+    private BookingPartitionMaintenance maintenance;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("DELETE FROM booking_history_request");
+        jdbcTemplate.execute("DELETE FROM booking_request");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition("booking_request", FAR_MONTH));
+    }
+
+    @Test
+    void testUpcomingMonthsHavePartitions() {
+        maintenance.ensureUpcoming();
+
+        for (String table : BookingPartitionMaintenance.PARTITIONED_TABLES) {
+            for (int offset = 0; offset <= 12; offset++) {
+                String name = partition(table, YearMonth.now().plusMonths(offset));
+                assertThat(jdbcTemplate.queryForObject("select to_regclass(?)::text", String.class, name)).isEqualTo(name);
+            }
+        }
+    }
+
+    @Test
+    void testNewPartitionTakesRowsFromDefault() {
+        BookingRequest booking = bookingService.createBooking("Far ahead", "Tomar", FAR_MONTH.atDay(10).atTime(10, 0));
+        assertThat(partitionOf(booking)).isEqualTo("booking_request_default");
+
+        assertThat(maintenance.ensureMonth("booking_request", FAR_MONTH)).isTrue();
+        assertThat(maintenance.ensureMonth("booking_request", FAR_MONTH)).isFalse();
+
+        assertThat(partitionOf(booking)).isEqualTo(partition("booking_request", FAR_MONTH));
+        assertThat(bookingService.getBookingByToken(booking.getToken())).isPresent();
+    }
+
+    @Test
+    void testDayCountOnlyScansItsMonth() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        List<String> plan = jdbcTemplate.queryForList("explain select count(*) from booking_request where municipality = 'Tomar' "
+            + "and date >= '" + day + "' and date < '" + day.plusDays(1) + "' and status <> 'CANCELLED'", String.class);
+
+        assertThat(String.join("\n", plan))
+            .contains(partition("booking_request", YearMonth.from(day)))
+            .doesNotContain("booking_request_default")
+            .doesNotContain(partition("booking_request", YearMonth.from(day).plusMonths(1)));
+    }
+
+    private String partitionOf(BookingRequest booking) {
+        return jdbcTemplate.queryForObject("select tableoid::regclass::text from booking_request where token = ?",
+            String.class, booking.getToken());
+    }
+
+    private static String partition(String table, YearMonth month) {
+        return String.format("%s_y%04dm%02d", table, month.getYear(), month.getMonthValue());
+    }
+}
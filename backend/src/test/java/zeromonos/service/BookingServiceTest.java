@@ -1,19 +1,32 @@
 package zeromonos.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 import zeromonos.data.BookingHistoryRepository;
 import zeromonos.data.BookingHistoryRequest;
 import zeromonos.data.BookingRepository;
 import zeromonos.data.BookingRequest;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -27,12 +40,27 @@ class BookingServiceTest {
     private BookingRepository repository;
     @Mock
     private BookingHistoryRepository historyRepository;
+    @Mock
+    private BookingHistoryWriter historyWriter;
+    @Mock
+    private BookingArchive archive;
+    @Mock
+    private BookingStatsRollup statsRollup;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     
+    private BookingCapacityLedger capacityLedger;
+    private BookingTokenCache tokenCache;
+    private MeterRegistry meterRegistry;
     private BookingService service;
 
     @BeforeEach
     void setUp() {
-        service = new BookingService(repository, historyRepository);
+        capacityLedger = new BookingCapacityLedger(repository);
+        tokenCache = new BookingTokenCache(100, Duration.ofMinutes(5));
+        meterRegistry = new SimpleMeterRegistry();
+        service = new BookingService(repository, historyRepository, capacityLedger, tokenCache, historyWriter,
+            archive, statsRollup, eventPublisher, meterRegistry);
     }
 
     @Test
@@ -42,8 +70,7 @@ class BookingServiceTest {
         booking.setMunicipality("Aveiro");
         booking.setDate(LocalDateTime.of(2024, 6, 10, 10, 0));
         booking.setToken("TOKEN123");
-        when(repository.findByMunicipality("Aveiro")).thenReturn(List.of());
-        when(repository.save(any(BookingRequest.class))).thenReturn(booking);
+        when(repository.saveAndFlush(any(BookingRequest.class))).thenReturn(booking);
 
         BookingRequest result = service.createBooking("room", "Aveiro", LocalDateTime.of(2024, 6, 10, 10, 0));
 
@@ -51,23 +78,181 @@ class BookingServiceTest {
         assertThat(result.getMunicipality()).isEqualTo("Aveiro");
         assertThat(result.getDate()).isEqualTo(LocalDateTime.of(2024, 6, 10, 10, 0));
         assertThat(result.getToken()).isEqualTo("TOKEN123");
-        verify(repository, times(1)).save(any(BookingRequest.class));
+        assertThat(capacityLedger.count("Aveiro", LocalDate.of(2024, 6, 10))).isEqualTo(1);
+        verify(repository, times(1)).lockDay("Aveiro", (int) LocalDate.of(2024, 6, 10).toEpochDay());
+        verify(repository, times(1)).saveAndFlush(any(BookingRequest.class));
+        verify(repository, never()).findByMunicipality(any());
     }
 
     @Test
     void testCreateBookingThrowsExceptionWhenLimitReached() {
         LocalDateTime date = LocalDateTime.of(2025, 11, 1, 10, 0);
-        List<BookingRequest> existingBookings = List.of(
-            new BookingRequest("r1", "Aveiro", date, "T1"),
-            new BookingRequest("r2", "Aveiro", date, "T2"),
-            new BookingRequest("r3", "Aveiro", date, "T3"),
-            new BookingRequest("r4", "Aveiro", date, "T4"),
-            new BookingRequest("r5", "Aveiro", date, "T5")
-        );
-        when(repository.findByMunicipality("Aveiro")).thenReturn(existingBookings);
+        for (int i = 0; i < BookingCapacityLedger.DAILY_LIMIT; i++) {
+            capacityLedger.tryAcquire("Aveiro", date.toLocalDate());
+        }
+        when(repository.countActiveOn("Aveiro", date.toLocalDate())).thenReturn(5L);
         assertThatThrownBy(() -> service.createBooking("room", "Aveiro", date))
-            .isInstanceOf(IllegalStateException.class)
+            .isInstanceOf(DailyLimitReachedException.class)
             .hasMessage("Booking limit reached for this municipality");
+        verify(repository, never()).saveAndFlush(any(BookingRequest.class));
+        assertThat(meterRegistry.counter(BookingService.CAPACITY_REJECTIONS, "municipality", "Aveiro").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCreateBookingRejectedByDatabaseReleasesReservation() {
+        LocalDateTime date = LocalDateTime.of(2025, 11, 1, 10, 0);
+        when(repository.countActiveOn("Aveiro", date.toLocalDate())).thenReturn(5L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThatThrownBy(() -> service.createBooking("room", "Aveiro", date))
+                .isInstanceOf(DailyLimitReachedException.class);
+            assertThat(capacityLedger.count("Aveiro", date.toLocalDate())).isEqualTo(1);
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+
+        assertThat(capacityLedger.count("Aveiro", date.toLocalDate())).isZero();
+        assertThat(meterRegistry.counter(BookingService.CAPACITY_REJECTIONS, "municipality", "Aveiro").count()).isEqualTo(1);
+        verify(repository, never()).saveAndFlush(any(BookingRequest.class));
+    }
+
+    @Test
+    void testCreateBookingsAppliesLimitPerMunicipalityAndDay() {
+        LocalDateTime date = LocalDateTime.of(2025, 11, 1, 10, 0);
+        when(repository.countActiveOn("Aveiro", date.toLocalDate())).thenReturn(3L);
+        List<BookingDraft> drafts = List.of(
+            new BookingDraft("r1", "Aveiro", date),
+            new BookingDraft("r2", "Aveiro", date.plusHours(1)),
+            new BookingDraft("r3", "Porto", date),
+            new BookingDraft("r4", "Aveiro", date.plusHours(2)),
+            new BookingDraft(null, "Aveiro", date)
+        );
+
+        List<BookingBatchResult> results = service.createBookings(drafts);
+
+        assertThat(results).extracting(BookingBatchResult::status)
+            .containsExactly("CREATED", "CREATED", "CREATED", "REJECTED", "INVALID");
+        assertThat(results).extracting(BookingBatchResult::index).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results.get(0).token()).isNotNull();
+        assertThat(capacityLedger.count("Aveiro", date.toLocalDate())).isEqualTo(2);
+        verify(repository, times(1)).lockDay("Aveiro", (int) date.toLocalDate().toEpochDay());
+        verify(repository, times(1)).lockDay("Porto", (int) date.toLocalDate().toEpochDay());
+        verify(repository, times(1)).saveAll(argThat(bookings -> ((List<?>) bookings).size() == 3));
+        verify(repository, times(1)).flush();
+    }
+
+    @Test
+    void testCancelReleasesCapacity() {
+        LocalDateTime date = LocalDateTime.of(2025, 11, 1, 10, 0);
+        BookingRequest booking = new BookingRequest("room", "Aveiro", date, "T1");
+        when(repository.saveAndFlush(any(BookingRequest.class))).thenReturn(booking);
+        service.createBooking("room", "Aveiro", date);
+        booking.rememberPersistedStatus();
+
+        when(repository.save(booking)).thenReturn(booking);
+
+        booking.setStatus("CANCELLED");
+        service.save(booking);
+
+        assertThat(capacityLedger.count("Aveiro", date.toLocalDate())).isZero();
+    }
+
+    @Test
+    void testReactivationIsRejectedWhenDayIsFull() {
+        LocalDateTime date = LocalDateTime.of(2024, 6, 10, 10, 0);
+        BookingRequest booking = new BookingRequest("room", "Aveiro", date, "T1");
+        booking.setStatus("CANCELLED");
+        booking.rememberPersistedStatus();
+        when(repository.countActiveOn("Aveiro", date.toLocalDate())).thenReturn(5L);
+
+        booking.setStatus("RECEIVED");
+
+        assertThatThrownBy(() -> service.save(booking)).isInstanceOf(DailyLimitReachedException.class);
+        verify(repository, times(1)).lockDay("Aveiro", (int) date.toLocalDate().toEpochDay());
+        verify(repository, never()).save(any(BookingRequest.class));
+    }
+
+    @Test
+    void testReactivationTakesFreeSlot() {
+        LocalDateTime date = LocalDateTime.of(2024, 6, 10, 10, 0);
+        BookingRequest booking = new BookingRequest("room", "Aveiro", date, "T1");
+        booking.setStatus("CANCELLED");
+        booking.rememberPersistedStatus();
+        when(repository.countActiveOn("Aveiro", date.toLocalDate())).thenReturn(4L);
+        when(repository.save(booking)).thenReturn(booking);
+
+        booking.setStatus("RECEIVED");
+        service.save(booking);
+
+        assertThat(capacityLedger.count("Aveiro", date.toLocalDate())).isEqualTo(1);
+    }
+
+    @Test
+    void testStatusChangePublishesEvent() {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
+        booking.rememberPersistedStatus();
+        when(repository.save(booking)).thenReturn(booking);
+
+        service.save(booking);
+        booking.setStatus("CANCELLED");
+        service.save(booking);
+
+        ArgumentCaptor<BookingStatusEvent> event = ArgumentCaptor.forClass(BookingStatusEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().token()).isEqualTo("T1");
+        assertThat(event.getValue().previousStatus()).isEqualTo("RECEIVED");
+        assertThat(event.getValue().status()).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void testSaveKeepsDetachedBookingInStepWithMergedCopy() {
+        BookingRequest detached = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
+        detached.setVersion(3L);
+        detached.rememberPersistedStatus();
+        BookingRequest merged = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
+        merged.setVersion(4L);
+        merged.setStatus("ASSIGNED");
+        when(repository.save(detached)).thenReturn(merged);
+
+        detached.setStatus("ASSIGNED");
+        service.save(detached);
+
+        assertThat(detached.getVersion()).isEqualTo(4L);
+        assertThat(detached.getPersistedStatus()).isEqualTo("ASSIGNED");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindBookingsReturnsCursorWhenMoreRowsExist() {
+        BookingRequest b1 = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
+        b1.setId(1L);
+        BookingRequest b2 = new BookingRequest("car", "Aveiro", LocalDateTime.now(), "T2");
+        b2.setId(2L);
+        BookingRequest b3 = new BookingRequest("sofa", "Aveiro", LocalDateTime.now(), "T3");
+        b3.setId(3L);
+        when(repository.findBy(any(Specification.class), any(Function.class))).thenReturn(List.of(b1, b2, b3));
+
+        BookingPage page = service.findBookings("Aveiro", null, null, null, null, 2);
+
+        assertThat(page.items()).containsExactly(b1, b2);
+        assertThat(page.nextCursor()).isEqualTo(2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindBookingsLastPageHasNoCursor() {
+        BookingRequest b1 = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
+        b1.setId(1L);
+        when(repository.findBy(any(Specification.class), any(Function.class))).thenReturn(List.of(b1));
+
+        BookingPage page = service.findBookings("Aveiro", null, null, null, null, 2);
+
+        assertThat(page.items()).containsExactly(b1);
+        assertThat(page.nextCursor()).isNull();
     }
 
     @Test
@@ -98,6 +283,81 @@ class BookingServiceTest {
         verify(repository, times(1)).findByToken("TOKEN123");
     }
 
+    @Test
+    void testRepeatedTokenLookupIsServedFromCache() {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "TOKEN123");
+        when(repository.findByToken("TOKEN123")).thenReturn(Optional.of(booking));
+
+        service.getBookingByToken("TOKEN123");
+        Optional<BookingRequest> second = service.getBookingByToken("TOKEN123");
+
+        assertThat(second).isPresent();
+        assertThat(second.get()).isNotSameAs(booking);
+        assertThat(second.get().getToken()).isEqualTo("TOKEN123");
+        assertThat(service.getTokenCacheStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+        verify(repository, times(1)).findByToken("TOKEN123");
+    }
+
+    @Test
+    void testSaveUpdatesCachedBooking() {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "TOKEN123");
+        when(repository.findByToken("TOKEN123")).thenReturn(Optional.of(booking));
+        service.getBookingByToken("TOKEN123");
+
+        BookingRequest updated = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "TOKEN123");
+        updated.setStatus("IN_PROGRESS");
+        when(repository.save(updated)).thenReturn(updated);
+        service.save(updated);
+
+        assertThat(service.getBookingByToken("TOKEN123")).get()
+            .extracting(BookingRequest::getStatus).isEqualTo("IN_PROGRESS");
+        verify(repository, times(1)).findByToken("TOKEN123");
+    }
+
+    @Test
+    void testUnknownTokenIsNotCached() {
+        when(repository.findByToken("MISSING")).thenReturn(Optional.empty());
+
+        service.getBookingByToken("MISSING");
+        service.getBookingByToken("MISSING");
+
+        verify(repository, times(2)).findByToken("MISSING");
+    }
+
+    @Test
+    void testArchivedBookingIsFoundByToken() {
+        when(repository.findByToken("OLD")).thenReturn(Optional.empty());
+        when(archive.findByToken("OLD")).thenReturn(Optional.of(archived("OLD")));
+
+        Optional<BookingRequest> found = service.getBookingByToken("OLD");
+
+        assertThat(found).isPresent();
+        assertThat(found.get().isArchived()).isTrue();
+        assertThat(found.get().getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void testArchivedBookingCannotBeSaved() {
+        BookingRequest booking = archived("OLD");
+        booking.setStatus("CANCELLED");
+
+        assertThatThrownBy(() -> service.save(booking))
+            .isInstanceOf(OptimisticLockingFailureException.class)
+            .hasMessage(BookingService.ARCHIVED);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void testHistoryOfArchivedBookingComesFromArchive() {
+        BookingRequest booking = archived("OLD");
+        when(archive.history(booking)).thenReturn(List.of(new BookingHistoryRequest(booking, "COMPLETED", LocalDateTime.now())));
+
+        List<BookingHistoryRequest> history = service.getStatusHistory(booking);
+
+        assertThat(history).extracting(BookingHistoryRequest::getStatus).containsExactly("COMPLETED");
+        verifyNoInteractions(historyRepository);
+    }
+
     @Test
     void testGetBookingsByMunicipality() {
         BookingRequest b1 = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
@@ -124,14 +384,76 @@ class BookingServiceTest {
     }
 
     @Test
-    void testAddStatusHistory() {
+    void testAvailabilityComesFromLedger() {
+        LocalDate day = LocalDate.of(2025, 11, 1);
+        capacityLedger.add("Aveiro", day, BookingCapacityLedger.DAILY_LIMIT);
+        capacityLedger.add("Aveiro", day.plusDays(1), 2);
+
+        List<DayAvailability> availability = service.getAvailability("Aveiro", day, day.plusDays(2));
+
+        assertThat(availability).containsExactly(
+            new DayAvailability(day, 0),
+            new DayAvailability(day.plusDays(1), 3),
+            new DayAvailability(day.plusDays(2), BookingCapacityLedger.DAILY_LIMIT));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testCreateBookingIsCountedInStats() {
+        LocalDateTime date = LocalDateTime.of(2025, 11, 1, 10, 0);
+        BookingRequest booking = new BookingRequest("room", "Aveiro", date, "T1");
+        when(repository.saveAndFlush(any(BookingRequest.class))).thenReturn(booking);
+
+        service.createBooking("room", "Aveiro", date);
+
+        verify(statsRollup, times(1)).added(List.of(booking));
+    }
+
+    @Test
+    void testStatusChangeMovesStats() {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
+        booking.rememberPersistedStatus();
+        booking.setStatus("ASSIGNED");
+        when(repository.save(booking)).thenReturn(booking);
+
+        service.save(booking);
+
+        verify(statsRollup, times(1)).moved(booking, "RECEIVED");
+    }
+
+    @Test
+    void testAddStatusHistoryIsWrittenBehind() {
         BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
-        BookingHistoryRequest history = new BookingHistoryRequest(booking, "IN_PROGRESS", LocalDateTime.now());
-        when(historyRepository.save(any(BookingHistoryRequest.class))).thenReturn(history);
 
         service.addStatusHistory(booking, "IN_PROGRESS");
 
-        verify(historyRepository, times(1)).save(any(BookingHistoryRequest.class));
+        verify(historyWriter, times(1)).enqueue(argThat(h -> h.getStatus().equals("IN_PROGRESS") && h.getBooking() == booking));
+        verify(historyRepository, never()).save(any(BookingHistoryRequest.class));
+    }
+
+    @Test
+    void testGetStatusHistoryFlushesPendingRows() {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
+        booking.setId(1L);
+        when(historyWriter.hasPending(1L)).thenReturn(true);
+
+        service.getStatusHistory(booking);
+
+        InOrder inOrder = inOrder(historyWriter, historyRepository);
+        inOrder.verify(historyWriter).flush();
+        inOrder.verify(historyRepository).findByBooking(booking);
+    }
+
+    @Test
+    void testGetStatusHistorySkipsFlushWhenBookingHasNoPendingRows() {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.now(), "T1");
+        booking.setId(1L);
+        when(historyWriter.hasPending(1L)).thenReturn(false);
+
+        service.getStatusHistory(booking);
+
+        verify(historyWriter, never()).flush();
+        verify(historyRepository, times(1)).findByBooking(booking);
     }
 
     @Test
@@ -148,4 +470,13 @@ class BookingServiceTest {
         assertThat(history.get(1).getStatus()).isEqualTo("COMPLETED");
         verify(historyRepository, times(1)).findByBooking(booking);
     }
-}
\ No newline at end of file
+
+    private static BookingRequest archived(String token) {
+        BookingRequest booking = new BookingRequest("room", "Aveiro", LocalDateTime.now().minusYears(1), token);
+        booking.setId(7L);
+        booking.setVersion(3L);
+        booking.setStatus("COMPLETED");
+        booking.markArchived();
+        return booking;
+    }
+}
@@ -0,0 +1,67 @@
+package zeromonos.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import zeromonos.data.MunicipalityTaskCount;
+import zeromonos.data.WorkTaskRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OpenTaskGaugeTest {
+
+    @Mock
+    private WorkTaskRepository workTaskRepository;
+
+    private MeterRegistry meterRegistry;
+    private OpenTaskGauge gauge;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        gauge = new OpenTaskGauge(workTaskRepository, meterRegistry);
+    }
+
+    @Test
+    void testRefreshPublishesOneValuePerMunicipality() {
+        when(workTaskRepository.countOpenByMunicipality()).thenReturn(List.of(row("Aveiro", 3), row("Porto", 1)));
+
+        gauge.warmUp();
+
+        assertThat(value("Aveiro")).isEqualTo(3);
+        assertThat(value("Porto")).isEqualTo(1);
+    }
+
+    @Test
+    void testMunicipalityWithoutOpenTasksIsDropped() {
+        when(workTaskRepository.countOpenByMunicipality())
+            .thenReturn(List.of(row("Aveiro", 3), row("Porto", 1)))
+            .thenReturn(List.of(row("Aveiro", 2)));
+
+        gauge.refresh();
+        gauge.refresh();
+
+        assertThat(value("Aveiro")).isEqualTo(2);
+        assertThat(meterRegistry.find(OpenTaskGauge.METRIC).tag("municipality", "Porto").gauge()).isNull();
+    }
+
+    private double value(String municipality) {
+        return meterRegistry.get(OpenTaskGauge.METRIC).tag("municipality", municipality).gauge().value();
+    }
+
+    private static MunicipalityTaskCount row(String municipality, long total) {
+        return new MunicipalityTaskCount() {
+            public String getMunicipality() { return municipality; }
+            public long getTotal() { return total; }
+        };
+    }
+}
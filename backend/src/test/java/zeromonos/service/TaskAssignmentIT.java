@@ -0,0 +1,167 @@
+package zeromonos.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import zeromonos.data.BookingRequest;
+import zeromonos.data.EmployeeRepository;
+import zeromonos.data.EmployeeRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class TaskAssignmentIT {
+
+    private static final int REQUESTS = 16;
+
+    @Autowired
+    private WorkTaskService workTaskService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private TaskLoadIndex loadIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("DELETE FROM work_task_request");
+        jdbcTemplate.execute("DELETE FROM employee_request");
+        jdbcTemplate.execute("DELETE FROM booking_history_request");
+        jdbcTemplate.execute("DELETE FROM booking_request");
+    }
+
+    @Test
+    void testConcurrentAssignsCreateOneTask() throws Exception {
+        BookingRequest booking = bookingService.createBooking("Race", "Tomar", LocalDateTime.now().plusDays(2));
+        List<Long> employeeIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            employeeIds.add(employeeRepository.save(
+                new EmployeeRequest("Racer " + i, "racer" + i + "@example.com", "Tomar", "COLLECTOR")).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            Long employeeId = employeeIds.get(i % employeeIds.size());
+            Callable<Boolean> request = () -> {
+                start.await();
+                try {
+                    workTaskService.assignTask(booking.getToken(), employeeId);
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            };
+            results.add(executor.submit(request));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        long assigned = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                assigned++;
+            }
+        }
+        assertThat(assigned).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM work_task_request", Long.class)).isEqualTo(1L);
+        assertThat(bookingService.getBookingByToken(booking.getToken())).get()
+            .extracting(BookingRequest::getStatus).isEqualTo("ASSIGNED");
+    }
+
+    @Test
+    void testStaleBookingIsRejected() {
+        BookingRequest booking = bookingService.createBooking("Stale", "Tomar", LocalDateTime.now().plusDays(2));
+        EmployeeRequest employee = employeeRepository.save(new EmployeeRequest("Late", "late@example.com", "Tomar", "DRIVER"));
+        BookingRequest stale = booking.snapshot();
+
+        BookingRequest fresh = bookingService.getBookingByToken(booking.getToken()).orElseThrow();
+        fresh.setStatus("CANCELLED");
+        bookingService.save(fresh);
+
+        assertThatThrownBy(() -> workTaskService.assignTask(stale, employee))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage(WorkTaskService.TASK_CONFLICT);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM work_task_request", Long.class)).isZero();
+        assertThat(bookingService.getBookingByToken(booking.getToken())).get()
+            .extracting(BookingRequest::getStatus).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void testStaleBookingIsRejectedWhenAssignedByEmployeeId() {
+        BookingRequest booking = bookingService.createBooking("Stale", "Tomar", LocalDateTime.now().plusDays(2));
+        EmployeeRequest employee = employeeRepository.save(new EmployeeRequest("Late", "late@example.com", "Tomar", "DRIVER"));
+        BookingRequest stale = booking.snapshot();
+
+        BookingRequest fresh = bookingService.getBookingByToken(booking.getToken()).orElseThrow();
+        fresh.setStatus("CANCELLED");
+        bookingService.save(fresh);
+
+        // the task insert must roll back with the failed booking update
+        assertThatThrownBy(() -> workTaskService.assignTaskToEmployee(stale, employee.getId()))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM work_task_request", Long.class)).isZero();
+    }
+
+    @Test
+    void testCancelledBookingOnFullDayIsNotAssigned() {
+        LocalDateTime date = LocalDateTime.now().plusDays(2);
+        BookingRequest booking = bookingService.createBooking("Cancelled", "Tomar", date);
+        EmployeeRequest employee = employeeRepository.save(new EmployeeRequest("Ana", "ana@example.com", "Tomar", "DRIVER"));
+        booking.setStatus("CANCELLED");
+        bookingService.save(booking);
+        for (int i = 0; i < BookingCapacityLedger.DAILY_LIMIT; i++) {
+            bookingService.createBooking("Filler " + i, "Tomar", date);
+        }
+
+        // reported as the limit, not as a task conflict
+        assertThatThrownBy(() -> workTaskService.assignTask(booking.getToken(), employee.getId()))
+            .isInstanceOf(DailyLimitReachedException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM work_task_request", Long.class)).isZero();
+        assertThat(bookingService.getBookingByToken(booking.getToken())).get()
+            .extracting(BookingRequest::getStatus).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void testTaskStaysOpenWhenItsBookingCannotBeCompleted() {
+        LocalDateTime date = LocalDateTime.now().plusDays(2);
+        BookingRequest booking = bookingService.createBooking("Cancelled", "Tomar", date);
+        EmployeeRequest employee = employeeRepository.save(new EmployeeRequest("Ana", "ana@example.com", "Tomar", "DRIVER"));
+        Long taskId = workTaskService.assignTask(booking.getToken(), employee.getId()).getId();
+        BookingRequest assigned = bookingService.getBookingByToken(booking.getToken()).orElseThrow();
+        assigned.setStatus("CANCELLED");
+        bookingService.save(assigned);
+        for (int i = 0; i < BookingCapacityLedger.DAILY_LIMIT; i++) {
+            bookingService.createBooking("Filler " + i, "Tomar", date);
+        }
+
+        // completing would reactivate the booking on a full day; the task update must roll back with it
+        assertThatThrownBy(() -> workTaskService.completeTask(taskId, "Done"))
+            .isInstanceOf(DailyLimitReachedException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM work_task_request WHERE id = ?", String.class, taskId))
+            .isEqualTo("ASSIGNED");
+        assertThat(bookingService.getBookingByToken(booking.getToken())).get()
+            .extracting(BookingRequest::getStatus).isEqualTo("CANCELLED");
+        // the open-task count only moves once the completion commits
+        assertThat(loadIndex.count(employee.getId())).isEqualTo(1);
+    }
+}
@@ -0,0 +1,158 @@
+package zeromonos.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import zeromonos.data.BookingRepository;
+import zeromonos.data.BookingRequest;
+import zeromonos.data.EmployeeRepository;
+import zeromonos.data.EmployeeRequest;
+import zeromonos.data.WorkTaskRepository;
+import zeromonos.data.WorkTaskRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskDispatchServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private WorkTaskRepository workTaskRepository;
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private EmployeeCache employeeCache;
+
+    private TaskLoadIndex loadIndex;
+    private WorkTaskService workTaskService;
+    private TaskDispatchService service;
+
+    @BeforeEach
+    void setUp() {
+        loadIndex = new TaskLoadIndex(workTaskRepository);
+        workTaskService = new WorkTaskService(workTaskRepository, employeeRepository, bookingRepository, bookingService, loadIndex, employeeCache);
+        service = new TaskDispatchService(bookingRepository, employeeRepository, workTaskService, loadIndex, false, 1000);
+    }
+
+    @Test
+    void testDispatchBalancesLoadAndQueriesCandidatesOncePerMunicipality() {
+        List<BookingRequest> bookings = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            bookings.add(booking(id, "Aveiro"));
+        }
+        bookings.add(booking(7L, "Porto"));
+        when(bookingRepository.findUndispatched(0L, Limit.of(100))).thenReturn(bookings);
+        when(employeeRepository.findByMunicipality("Aveiro")).thenReturn(List.of(employee(1L, "Aveiro"), employee(2L, "Aveiro")));
+        when(employeeRepository.findByMunicipality("Porto")).thenReturn(List.of(employee(3L, "Porto")));
+        loadIndex.onAssigned(1L);
+        loadIndex.onAssigned(1L);
+        when(workTaskRepository.saveAndFlush(any(WorkTaskRequest.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TaskDispatchResult result = service.dispatchPending(100);
+
+        assertThat(result).isEqualTo(new TaskDispatchResult(7, 0));
+        assertThat(loadIndex.count(1L)).isEqualTo(4);
+        assertThat(loadIndex.count(2L)).isEqualTo(4);
+        assertThat(loadIndex.count(3L)).isEqualTo(1);
+        assertThat(bookings).allMatch(b -> "ASSIGNED".equals(b.getStatus()));
+        verify(employeeRepository, times(1)).findByMunicipality("Aveiro");
+        verify(employeeRepository, times(1)).findByMunicipality("Porto");
+        verify(workTaskRepository, times(7)).saveAndFlush(any(WorkTaskRequest.class));
+        verify(bookingService, times(7)).save(any(BookingRequest.class));
+        verify(workTaskRepository, never()).countOpenByEmployee();
+    }
+
+    @Test
+    void testBookingsWithoutStaffStayReceived() {
+        BookingRequest booking = booking(1L, "Faro");
+        when(bookingRepository.findUndispatched(0L, Limit.of(10))).thenReturn(List.of(booking));
+        when(employeeRepository.findByMunicipality("Faro")).thenReturn(List.of());
+
+        TaskDispatchResult result = service.dispatchPending(10);
+
+        assertThat(result).isEqualTo(new TaskDispatchResult(0, 1));
+        assertThat(booking.getStatus()).isEqualTo("RECEIVED");
+        verifyNoInteractions(workTaskRepository, bookingService);
+    }
+
+    @Test
+    void testConflictingAssignmentIsLeftUnassigned() {
+        BookingRequest booking = booking(1L, "Aveiro");
+        when(bookingRepository.findUndispatched(0L, Limit.of(10))).thenReturn(List.of(booking));
+        when(employeeRepository.findByMunicipality("Aveiro")).thenReturn(List.of(employee(1L, "Aveiro")));
+        when(workTaskRepository.saveAndFlush(any(WorkTaskRequest.class)))
+            .thenThrow(new DataIntegrityViolationException("uk_task_booking"));
+
+        TaskDispatchResult result = service.dispatchPending(10);
+
+        assertThat(result).isEqualTo(new TaskDispatchResult(0, 1));
+        assertThat(loadIndex.count(1L)).isZero();
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void testDispatchWalksPagesPastUnassignableBookings() {
+        List<BookingRequest> firstPage = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            firstPage.add(booking(id, "Faro"));
+        }
+        BookingRequest staffed = booking(501L, "Aveiro");
+        when(bookingRepository.findUndispatched(0L, Limit.of(500))).thenReturn(firstPage);
+        when(bookingRepository.findUndispatched(500L, Limit.of(500))).thenReturn(List.of(staffed));
+        when(employeeRepository.findByMunicipality("Faro")).thenReturn(List.of());
+        when(employeeRepository.findByMunicipality("Aveiro")).thenReturn(List.of(employee(1L, "Aveiro")));
+        when(workTaskRepository.saveAndFlush(any(WorkTaskRequest.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TaskDispatchResult result = service.dispatchPending(1000);
+
+        assertThat(result).isEqualTo(new TaskDispatchResult(1, 500));
+        assertThat(staffed.getStatus()).isEqualTo("ASSIGNED");
+        verify(bookingRepository, times(2)).findUndispatched(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void testAutoDispatchDisabledDoesNothing() {
+        service.autoDispatch();
+
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void testAutoDispatchUsesBatchSize() {
+        TaskDispatchService auto = new TaskDispatchService(bookingRepository, employeeRepository, workTaskService,
+            loadIndex, true, 20);
+        when(bookingRepository.findUndispatched(eq(0L), any(Limit.class))).thenReturn(List.of());
+
+        auto.autoDispatch();
+
+        verify(bookingRepository, times(1)).findUndispatched(0L, Limit.of(20));
+    }
+
+    private static BookingRequest booking(Long id, String municipality) {
+        BookingRequest booking = new BookingRequest("Pickup", municipality, LocalDateTime.now().plusDays(1), "T" + id);
+        booking.setId(id);
+        return booking;
+    }
+
+    private static EmployeeRequest employee(Long id, String municipality) {
+        EmployeeRequest employee = new EmployeeRequest("Worker " + id, "w" + id + "@example.com", municipality, "COLLECTOR");
+        employee.setId(id);
+        return employee;
+    }
+}
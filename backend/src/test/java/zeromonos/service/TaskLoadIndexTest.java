@@ -0,0 +1,111 @@
+package zeromonos.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import zeromonos.data.EmployeeRequest;
+import zeromonos.data.EmployeeTaskCount;
+import zeromonos.data.WorkTaskRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskLoadIndexTest {
+
+    @Mock
+    private WorkTaskRepository workTaskRepository;
+
+    private TaskLoadIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TaskLoadIndex(workTaskRepository);
+    }
+
+    @Test
+    void testWarmUpLoadsOpenTaskCounts() {
+        when(workTaskRepository.countOpenByEmployee()).thenReturn(List.of(row(1L, 4), row(2L, 1)));
+
+        index.warmUp();
+
+        assertThat(index.count(1L)).isEqualTo(4);
+        assertThat(index.count(2L)).isEqualTo(1);
+        assertThat(index.count(3L)).isZero();
+    }
+
+    @Test
+    void testLeastLoadedPicksFewestOpenTasksThenLowestId() {
+        when(workTaskRepository.countOpenByEmployee()).thenReturn(List.of(row(1L, 2), row(2L, 1), row(3L, 1)));
+        index.warmUp();
+        List<EmployeeRequest> candidates = List.of(employee(3L), employee(1L), employee(2L));
+
+        assertThat(index.leastLoaded(candidates).getId()).isEqualTo(2L);
+
+        index.onAssigned(2L);
+        assertThat(index.leastLoaded(candidates).getId()).isEqualTo(3L);
+
+        index.onAssigned(3L);
+        assertThat(index.leastLoaded(candidates).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void testLeastLoadedWithoutCandidatesReturnsNull() {
+        assertThat(index.leastLoaded(List.of())).isNull();
+    }
+
+    @Test
+    void testStatusChangeFollowsCompletion() {
+        index.onAssigned(1L);
+        index.onAssigned(1L);
+
+        index.onStatusChange(1L, "ASSIGNED", "IN_PROGRESS");
+        assertThat(index.count(1L)).isEqualTo(2);
+
+        index.onStatusChange(1L, "IN_PROGRESS", "COMPLETED");
+        assertThat(index.count(1L)).isEqualTo(1);
+
+        index.onStatusChange(1L, "COMPLETED", "ASSIGNED");
+        assertThat(index.count(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void testClosedNeverGoesNegative() {
+        index.onClosed(1L);
+        index.onAssigned(1L);
+        index.onClosed(1L);
+        index.onClosed(1L);
+
+        assertThat(index.count(1L)).isZero();
+    }
+
+    @Test
+    void testReconcileResetsEmployeesWithoutOpenTasks() {
+        index.onAssigned(1L);
+        index.onAssigned(2L);
+        when(workTaskRepository.countOpenByEmployee()).thenReturn(List.of(row(2L, 5)));
+
+        index.reconcile();
+
+        assertThat(index.count(1L)).isZero();
+        assertThat(index.count(2L)).isEqualTo(5);
+    }
+
+    private static EmployeeRequest employee(Long id) {
+        EmployeeRequest employee = new EmployeeRequest("Worker " + id, "w" + id + "@example.com", "Aveiro", "COLLECTOR");
+        employee.setId(id);
+        return employee;
+    }
+
+    private static EmployeeTaskCount row(Long employeeId, long total) {
+        return new EmployeeTaskCount() {
+            public Long getEmployeeId() { return employeeId; }
+            public long getTotal() { return total; }
+        };
+    }
+}
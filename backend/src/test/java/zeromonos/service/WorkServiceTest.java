@@ -7,12 +7,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import zeromonos.data.*;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,12 +29,18 @@ class WorkServiceTest {
     private EmployeeRepository employeeRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private EmployeeCache employeeCache;
     
+    private TaskLoadIndex loadIndex;
     private WorkTaskService service;
 
     @BeforeEach
     void setUp() {
-        service = new WorkTaskService(workTaskRepository, employeeRepository, bookingRepository);
+        loadIndex = new TaskLoadIndex(workTaskRepository);
+        service = new WorkTaskService(workTaskRepository, employeeRepository, bookingRepository, bookingService, loadIndex, employeeCache);
     }
 
     @Test
@@ -39,13 +50,77 @@ class WorkServiceTest {
         employee.setId(1L);
         
         when(employeeRepository.findById(1L)).thenReturn(Optional.of(employee));
-        when(workTaskRepository.save(any(WorkTaskRequest.class))).thenReturn(new WorkTaskRequest(booking, employee));
+        when(workTaskRepository.saveAndFlush(any(WorkTaskRequest.class))).thenReturn(new WorkTaskRequest(booking, employee));
+        when(bookingService.save(booking)).thenReturn(booking);
 
         WorkTaskRequest result = service.assignTaskToEmployee(booking, 1L);
 
         assertThat(result).isNotNull();
+        assertThat(booking.getStatus()).isEqualTo("ASSIGNED");
+        assertThat(loadIndex.count(1L)).isEqualTo(1);
         verify(employeeRepository, times(1)).findById(1L);
-        verify(workTaskRepository, times(1)).save(any(WorkTaskRequest.class));
+        verify(workTaskRepository, times(1)).saveAndFlush(any(WorkTaskRequest.class));
+        verify(bookingService, times(1)).save(booking);
+        verify(bookingRepository, times(1)).flush();
+    }
+
+    @Test
+    void testAssignTaskByToken() {
+        BookingRequest booking = new BookingRequest("Test", "Aveiro", LocalDateTime.now(), "TOKEN123");
+        EmployeeRequest employee = new EmployeeRequest("John", "john@example.com", "Aveiro", "COLLECTOR");
+        employee.setId(1L);
+
+        when(bookingRepository.findByToken("TOKEN123")).thenReturn(Optional.of(booking));
+        when(employeeRepository.findById(1L)).thenReturn(Optional.of(employee));
+        when(workTaskRepository.saveAndFlush(any(WorkTaskRequest.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(bookingService.save(booking)).thenReturn(booking);
+
+        WorkTaskRequest result = service.assignTask("TOKEN123", 1L);
+
+        assertThat(result.getBooking()).isSameAs(booking);
+        assertThat(result.getAssignedEmployee()).isSameAs(employee);
+        assertThat(result.getStatus()).isEqualTo("ASSIGNED");
+    }
+
+    @Test
+    void testAssignTaskWithUnknownBookingThrows() {
+        when(bookingRepository.findByToken("NOPE")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.assignTask("NOPE", 1L))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Booking not found");
+        verifyNoInteractions(workTaskRepository);
+    }
+
+    @Test
+    void testAssignTaskTwiceIsConflict() {
+        BookingRequest booking = new BookingRequest("Test", "Aveiro", LocalDateTime.now(), "TOKEN123");
+        EmployeeRequest employee = new EmployeeRequest("John", "john@example.com", "Aveiro", "COLLECTOR");
+        employee.setId(1L);
+
+        when(workTaskRepository.saveAndFlush(any(WorkTaskRequest.class)))
+            .thenThrow(new DataIntegrityViolationException("uk_task_booking"));
+
+        assertThatThrownBy(() -> service.assignTask(booking, employee))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage(WorkTaskService.TASK_CONFLICT);
+        assertThat(loadIndex.count(1L)).isZero();
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void testAssignTaskWithStaleBookingIsConflict() {
+        BookingRequest booking = new BookingRequest("Test", "Aveiro", LocalDateTime.now(), "TOKEN123");
+        EmployeeRequest employee = new EmployeeRequest("John", "john@example.com", "Aveiro", "COLLECTOR");
+        employee.setId(1L);
+
+        when(workTaskRepository.saveAndFlush(any(WorkTaskRequest.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(bookingService.save(booking)).thenThrow(new ObjectOptimisticLockingFailureException(BookingRequest.class, 1L));
+
+        assertThatThrownBy(() -> service.assignTask(booking, employee))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage(WorkTaskService.TASK_CONFLICT);
+        assertThat(loadIndex.count(1L)).isZero();
     }
 
     @Test
@@ -61,9 +136,13 @@ class WorkServiceTest {
 
     @Test
     void testCompleteTask() {
+        EmployeeRequest employee = new EmployeeRequest("John", "john@example.com", "Aveiro", "COLLECTOR");
+        employee.setId(1L);
         WorkTaskRequest task = new WorkTaskRequest();
         task.setId(1L);
         task.setStatus("ASSIGNED");
+        task.setAssignedEmployee(employee);
+        loadIndex.onAssigned(1L);
         
         when(workTaskRepository.findById(1L)).thenReturn(Optional.of(task));
         when(workTaskRepository.save(any(WorkTaskRequest.class))).thenReturn(task);
@@ -72,9 +151,30 @@ class WorkServiceTest {
 
         assertThat(result.getStatus()).isEqualTo("COMPLETED");
         assertThat(result.getCompletedAt()).isNotNull();
+        assertThat(loadIndex.count(1L)).isZero();
         verify(workTaskRepository, times(1)).save(task);
     }
 
+    @Test
+    void testCompleteTaskCompletesItsBooking() {
+        BookingRequest booking = new BookingRequest("Test", "Aveiro", LocalDateTime.now(), "TOKEN123");
+        booking.setStatus("ASSIGNED");
+        WorkTaskRequest task = new WorkTaskRequest();
+        task.setId(1L);
+        task.setStatus("ASSIGNED");
+        task.setBooking(booking);
+
+        when(workTaskRepository.findById(1L)).thenReturn(Optional.of(task));
+        when(workTaskRepository.save(task)).thenReturn(task);
+        when(bookingService.save(booking)).thenReturn(booking);
+
+        WorkTaskRequest result = service.completeTask(1L, "Done");
+
+        assertThat(result.getBooking().getStatus()).isEqualTo("COMPLETED");
+        verify(bookingService, times(1)).save(booking);
+        verify(workTaskRepository, times(1)).flush();
+    }
+
     @Test
     void testGetAllEmployees() {
         EmployeeRequest emp1 = new EmployeeRequest("John", "john@example.com", "Aveiro", "COLLECTOR");
@@ -134,4 +234,58 @@ class WorkServiceTest {
         verify(employeeRepository, times(1)).findById(1L);
         verify(workTaskRepository, times(1)).findByAssignedEmployee(employee);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindTasksReturnsCursorWhenMoreRowsFollow() {
+        TaskSummary task1 = summary(4L);
+        TaskSummary task2 = summary(7L);
+        TaskSummary task3 = summary(9L);
+
+        when(workTaskRepository.findPage(0L, Limit.of(3))).thenReturn(List.of(task1, task2, task3));
+
+        WorkTaskPage page = service.findTasks(null, 2);
+
+        assertThat(page.items()).containsExactly(task1, task2);
+        assertThat(page.nextCursor()).isEqualTo(7L);
+    }
+
+    @Test
+    void testFindTasksLastPageHasNoCursor() {
+        TaskSummary task = summary(9L);
+
+        when(workTaskRepository.findPage(7L, Limit.of(3))).thenReturn(List.of(task));
+
+        WorkTaskPage page = service.findTasks(7L, 2);
+
+        assertThat(page.items()).containsExactly(task);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void testFindTasksByUnknownEmployeeThrows() {
+        when(employeeRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.findTasksByEmployee(99L, null, 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Employee not found");
+        verify(workTaskRepository, never()).findPageByEmployee(anyLong(), anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void testCreateEmployeeEvictsMunicipalityQueries() {
+        EmployeeRequest saved = new EmployeeRequest("Ana", "ana@example.com", "Aveiro", "DRIVER");
+        saved.setId(5L);
+        when(employeeRepository.save(any(EmployeeRequest.class))).thenReturn(saved);
+
+        EmployeeRequest result = service.createEmployee("Ana", "ana@example.com", "Aveiro", "DRIVER");
+
+        assertThat(result.getId()).isEqualTo(5L);
+        verify(employeeCache, times(1)).evictMunicipalityQueries();
+    }
+
+    private static TaskSummary summary(Long id) {
+        WorkTaskRequest task = new WorkTaskRequest();
+        task.setId(id);
+        return TaskSummary.of(task);
+    }
+}
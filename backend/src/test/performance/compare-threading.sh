@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Runs the same load against the platform-thread and the virtual-thread builds and prints both summaries.
+# With k6 installed it runs stresstest.js against the packaged application; without it, it runs the in-process
+# load harness (LoadHarnessIT), which replays the k6 scenarios. Needs a Java 21 JDK (JAVA_HOME) and the
+# Postgres database from application.properties. Extra arguments go to Maven, e.g. -Dload.time-scale=0.25.
+# Exits with 1 when the virtual-thread run reports a pinned carrier thread (-Djdk.tracePinnedThreads).
+set -euo pipefail
+
+cd "$(dirname "$0")/../../.."
+RESULTS=target/threading-comparison
+PINNING='onPinned|<== monitors'
+mkdir -p "$RESULTS"
+
+run_k6() {
+  local mode=$1
+  shift
+  ./mvnw -q -DskipTests "$@" package
+  java -Djdk.tracePinnedThreads=short -jar target/backend-0.0.1-SNAPSHOT.jar \
+    --spring.profiles.active="$mode" > "$RESULTS/$mode-app.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  until curl -sf http://localhost:8080/api/bookings?limit=1 > /dev/null; do sleep 1; done
+  k6 run --summary-export "$RESULTS/$mode.json" src/test/performance/stresstest.js
+  kill $pid
+  wait $pid 2>/dev/null || true
+  trap - EXIT
+}
+
+# A failed threshold is part of the result, so the harness exit status is only reported
+run_harness() {
+  local mode=$1
+  shift
+  local status=0
+  ./mvnw -B -Dtest=LoadHarnessIT -Djacoco.skip=true -DargLine=-Djdk.tracePinnedThreads=short \
+    -Dspring.profiles.active="$mode" "$@" test > "$RESULTS/$mode-app.log" 2>&1 || status=$?
+  mkdir -p "$RESULTS/$mode"
+  cp target/load/*.txt "$RESULTS/$mode/"
+  echo "load harness exited with $status" > "$RESULTS/$mode/status.txt"
+}
+
+if command -v k6 > /dev/null; then
+  run_k6 default "$@"
+  run_k6 virtual -Pvirtual-threads "$@"
+  for mode in default virtual; do
+    echo "== $mode"
+    jq -r '.metrics.http_req_duration | "p90 \(.["p(90)"]) ms  p95 \(.["p(95)"]) ms  max \(.max) ms"' "$RESULTS/$mode.json"
+    jq -r '.metrics.http_reqs | "\(.count) requests, \(.rate) req/s"' "$RESULTS/$mode.json"
+    jq -r '.metrics.checks | "checks passed \(.passes), failed \(.fails)"' "$RESULTS/$mode.json"
+  done
+else
+  rm -f target/load/*.txt
+  run_harness default -Pload "$@"
+  rm -f target/load/*.txt
+  run_harness virtual -Pvirtual-threads,load "$@"
+  for mode in default virtual; do
+    echo "== $mode ($(cat "$RESULTS/$mode/status.txt"))"
+    cat "$RESULTS/$mode"/*.txt | grep -v '^load harness'
+  done
+fi
+
+if grep -Eq "$PINNING" "$RESULTS/virtual-app.log"; then
+  echo "pinned virtual threads reported, see $RESULTS/virtual-app.log"
+  exit 1
+fi
+echo "no pinned virtual threads reported"
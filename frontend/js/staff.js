@@ -136,36 +136,54 @@ function renderTable(bookings) {
     });
 }
 
-document.getElementById("loadBtn").onclick = async () => {
+let nextCursor = null;
+
+async function loadBookings(append) {
     const municipality = document.getElementById("municipality").value;
     const status = document.getElementById("statusFilter").value;
     const resultDiv = document.getElementById("staffResult");
-    
-    resultDiv.innerHTML = "<div class='empty-state'><p>Loading bookings...</p></div>";
-    
+
+    if (!append) {
+        resultDiv.innerHTML = "<div class='empty-state'><p>Loading bookings...</p></div>";
+    }
+
+    const params = new URLSearchParams({ limit: 50 });
+    if (municipality) {
+        params.set("municipality", municipality);
+    }
+    if (status) {
+        params.set("status", status);
+    }
+    if (append && nextCursor) {
+        params.set("after", nextCursor);
+    }
+
     try {
-        const res = await fetch(`http://localhost:8080/api/bookings`);
+        const res = await fetch(`http://localhost:8080/api/bookings?${params}`);
         if (!res.ok) {
             resultDiv.innerHTML = "<div class='empty-state' style='color:#ef4444'>❌ Error loading bookings.</div>";
             return;
         }
-        
-        allBookings = await res.json();
-        let filteredBookings = allBookings;
 
-        if (municipality) {
-            filteredBookings = filteredBookings.filter(b => b.municipality === municipality);
-        }
-        
-        if (status) {
-            filteredBookings = filteredBookings.filter(b => b.status === status);
-        }
+        const page = await res.json();
+        nextCursor = res.headers.get("X-Next-Cursor");
+        allBookings = append ? allBookings.concat(page) : page;
 
-        renderTable(filteredBookings);
+        renderTable(allBookings);
+        if (nextCursor) {
+            const moreBtn = document.createElement("button");
+            moreBtn.className = "load-btn";
+            moreBtn.id = "loadMoreBtn";
+            moreBtn.textContent = "⬇️ Load more";
+            moreBtn.onclick = () => loadBookings(true);
+            resultDiv.appendChild(moreBtn);
+        }
     } catch (err) {
         resultDiv.innerHTML = "<div class='empty-state' style='color:#ef4444'>❌ Connection error.</div>";
     }
-};
+}
+
+document.getElementById("loadBtn").onclick = () => loadBookings(false);
 
 document.getElementById("addEmployeeBtn").onclick = () => {
     const form = document.getElementById("addEmployeeForm");
@@ -342,12 +360,22 @@ async function assignToEmployee(token, employeeId) {
     }
 }
 
-document.getElementById("loadTasksBtn").onclick = async () => {
+let allTasks = [];
+let nextTaskCursor = null;
+
+async function loadTasks(append) {
     const resultDiv = document.getElementById("tasksResult");
-    resultDiv.innerHTML = "<p style='text-align:center'>Loading tasks...</p>";
-    
+    if (!append) {
+        resultDiv.innerHTML = "<p style='text-align:center'>Loading tasks...</p>";
+    }
+
+    const params = new URLSearchParams({ limit: 50 });
+    if (append && nextTaskCursor) {
+        params.set("after", nextTaskCursor);
+    }
+
     try {
-        const res = await fetch("http://localhost:8080/api/tasks");
+        const res = await fetch(`http://localhost:8080/api/tasks?${params}`);
         
         if (!res.ok) {
             resultDiv.innerHTML = `
@@ -360,7 +388,10 @@ document.getElementById("loadTasksBtn").onclick = async () => {
             return;
         }
         
-        const tasks = await res.json();
+        const page = await res.json();
+        nextTaskCursor = res.headers.get("X-Next-Cursor");
+        allTasks = append ? allTasks.concat(page) : page;
+        const tasks = allTasks;
         
         if (tasks.length === 0) {
             resultDiv.innerHTML = `
@@ -380,8 +411,8 @@ document.getElementById("loadTasksBtn").onclick = async () => {
         tasks.forEach(task => {
             html += `<tr>
                 <td><strong>${task.id}</strong></td>
-                <td><code>${task.booking.token}</code><br><small>${task.booking.description}</small></td>
-                <td>${task.assignedEmployee.name}<br><small>${task.assignedEmployee.role}</small></td>
+                <td><code>${task.bookingToken}</code><br><small>${task.bookingDescription}</small></td>
+                <td>${task.employeeName}<br><small>${task.employeeRole}</small></td>
                 <td><span style="background: ${task.status === 'COMPLETED' ? '#10b981' : '#f59e0b'}; color: #fff; padding: 4px 12px; border-radius: 12px; font-size: 12px; font-weight: 600;">${task.status}</span></td>
                 <td>${task.assignedAt.replace('T',' ').substring(0,16)}</td>
                 <td>
@@ -392,6 +423,14 @@ document.getElementById("loadTasksBtn").onclick = async () => {
         
         html += `</tbody></table>`;
         resultDiv.innerHTML = html;
+        if (nextTaskCursor) {
+            const moreBtn = document.createElement("button");
+            moreBtn.className = "load-btn";
+            moreBtn.id = "loadMoreTasksBtn";
+            moreBtn.textContent = "⬇️ Load more";
+            moreBtn.onclick = () => loadTasks(true);
+            resultDiv.appendChild(moreBtn);
+        }
     } catch (err) {
         resultDiv.innerHTML = `
             <div class="empty-state">
@@ -401,7 +440,9 @@ document.getElementById("loadTasksBtn").onclick = async () => {
             </div>
         `;
     }
-};
+}
+
+document.getElementById("loadTasksBtn").onclick = () => loadTasks(false);
 
 function showCompleteModal(taskId) {
     const modal = document.getElementById("completeModal");